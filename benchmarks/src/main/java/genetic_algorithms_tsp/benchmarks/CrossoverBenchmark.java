@@ -0,0 +1,34 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm.CrossoverType;
+import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Crossover;
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+// Two children of two random parents, including the evaluation of their distance.
+public class CrossoverBenchmark extends DatasetState {
+
+    @Param
+    public CrossoverType crossoverType;
+
+    private final Chromosome[] children = new Chromosome[2];
+
+    @Benchmark
+    public int crossover() {
+        Chromosome p1 = nextChromosome();
+        Chromosome p2 = nextChromosome();
+        if (crossoverType == CrossoverType.UNIFORM_ORDER) {
+            Crossover.uniformOrder(p1, p2, random, children);
+        } else if (crossoverType == CrossoverType.ONE_POINT) {
+            Crossover.onePointCrossover(p1, p2, random, children);
+        } else if (crossoverType == CrossoverType.TWO_POINT) {
+            Crossover.twoPointCrossover(p1, p2, random, children);
+        } else if (crossoverType == CrossoverType.EDGE_RECOMBINATION) {
+            Crossover.edgeRecombination(p1, p2, random, children);
+        } else {
+            Crossover.edgeAssemblyCrossover(p1, p2, random, children);
+        }
+        return children[0].getDistance() + children[1].getDistance();
+    }
+}
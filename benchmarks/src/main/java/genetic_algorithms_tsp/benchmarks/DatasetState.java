@@ -0,0 +1,60 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.import_data.ImportData;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// A bundled data set and a pool of random routes through it, the same for every run thanks to the fixed seed.
+// The settings of the runs are inherited by every benchmark.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class DatasetState {
+    public static final long SEED = 42;
+    private static final int POOL_SIZE = 64;
+
+    @Param({"att48", "bier127", "ch150", "d198", "a280", "pr264", "pr299", "rat575"})
+    public String dataset;
+
+    protected DistanceMatrix distanceMatrix;
+    protected SplittableRandom random;
+    private Chromosome[] pool;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadDataset() {
+        distanceMatrix = ImportData.getDistanceMatrix("dataset/" + dataset + ".tsp");
+        distanceMatrix.getNeighborList();
+        random = new SplittableRandom(SEED);
+        pool = new Chromosome[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            pool[i] = new Chromosome(distanceMatrix, random);
+            pool[i].getDistance();
+            pool[i].getHash();
+        }
+    }
+
+    // The routes of the pool in turn, their distance and hash already computed.
+    protected Chromosome nextChromosome() {
+        Chromosome chromosome = pool[next];
+        next = (next + 1) % POOL_SIZE;
+        return chromosome;
+    }
+}
@@ -0,0 +1,23 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+// Full evaluation of a route, Chromosome.getDistance on a chromosome that has not computed it yet.
+public class DistanceBenchmark extends DatasetState {
+
+    private int[] tour;
+
+    @Setup(Level.Trial)
+    public void allocateTour() {
+        tour = new int[distanceMatrix.size()];
+    }
+
+    @Benchmark
+    public int getDistance() {
+        nextChromosome().copyTour(tour);
+        return new Chromosome(tour, distanceMatrix).getDistance();
+    }
+}
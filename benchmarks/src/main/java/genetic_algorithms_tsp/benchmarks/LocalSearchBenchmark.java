@@ -0,0 +1,33 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm.LocalSearchType;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.Budget;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.LinKernighan;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.OrOpt;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.ThreeOpt;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.TwoOpt;
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+// A random route improved until no move of the local search helps, as the memetic step does by default.
+public class LocalSearchBenchmark extends DatasetState {
+
+    @Param
+    public LocalSearchType localSearchType;
+
+    @Benchmark
+    public int improve() {
+        Chromosome chromosome = nextChromosome();
+        Budget budget = Budget.unlimited();
+        if (localSearchType == LocalSearchType.OR_OPT) {
+            return OrOpt.improve(chromosome, budget).getDistance();
+        } else if (localSearchType == LocalSearchType.THREE_OPT) {
+            return ThreeOpt.improve(chromosome, budget).getDistance();
+        } else if (localSearchType == LocalSearchType.LIN_KERNIGHAN) {
+            return LinKernighan.improve(chromosome, budget).getDistance();
+        } else {
+            return TwoOpt.improve(chromosome, budget).getDistance();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm.MutationType;
+import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Mutation;
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+// One mutant of a random route, including the evaluation of its distance.
+public class MutationBenchmark extends DatasetState {
+
+    @Param
+    public MutationType mutationType;
+
+    @Benchmark
+    public int mutate() {
+        Chromosome chromosome = nextChromosome();
+        Chromosome mutant;
+        if (mutationType == MutationType.RECIPROCAL_EXCHANGE) {
+            mutant = Mutation.reciprocalExchange(chromosome, random);
+        } else if (mutationType == MutationType.SCRAMBLE) {
+            mutant = Mutation.scrambleMutation(chromosome, random);
+        } else {
+            mutant = Mutation.insertion(chromosome, random);
+        }
+        return mutant.getDistance();
+    }
+}
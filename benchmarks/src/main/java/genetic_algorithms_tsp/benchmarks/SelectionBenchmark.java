@@ -0,0 +1,50 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm.SelectionType;
+import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Selection;
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+// Two parents chosen from a random population of the default size, with the default settings. The mating
+// pool of stochastic universal sampling is built again once it was gone through, as every generation does.
+public class SelectionBenchmark extends DatasetState {
+    private static final int POPULATION_SIZE = 800;
+
+    @Param
+    public SelectionType selectionType;
+
+    private Population population;
+    private final Chromosome[] parents = new Chromosome[2];
+    private final int[] matingPool = new int[POPULATION_SIZE];
+    private int poolCursor = POPULATION_SIZE;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        population = new Population(POPULATION_SIZE);
+        population.populate(distanceMatrix, random);
+        population.getCumulativeFitness(0);     // Builds the ranked view once, as every generation does.
+    }
+
+    @Benchmark
+    public Chromosome[] select() {
+        if (selectionType == SelectionType.STOCHASTIC_UNIVERSAL_SAMPLING) {
+            if (poolCursor == matingPool.length) {
+                Selection.stochasticUniversalSampling(population, random, matingPool);
+                poolCursor = 0;
+            }
+            parents[0] = population.getRanked(matingPool[poolCursor++]);
+            parents[1] = population.getRanked(matingPool[poolCursor++]);
+        } else if (selectionType == SelectionType.LINEAR_RANK) {
+            parents[0] = Selection.linearRankSelection(population, 1.5, random);
+            parents[1] = Selection.linearRankSelection(population, 1.5, random);
+        } else {
+            parents[0] = Selection.tournamentSelection(population, 5, random);
+            parents[1] = Selection.tournamentSelection(population, 5, random);
+        }
+        return parents;
+    }
+}
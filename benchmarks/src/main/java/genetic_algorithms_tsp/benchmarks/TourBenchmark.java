@@ -0,0 +1,59 @@
+package genetic_algorithms_tsp.benchmarks;
+
+import genetic_algorithms_tsp.genetic_algorithm.local_search.ArrayTour;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.Tour;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.TwoLevelTour;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Reversal of a random path, the step of every local search move, on routes larger than the bundled data sets.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TourBenchmark {
+
+    public enum Structure {ARRAY, TWO_LEVEL}
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param
+    public Structure structure;
+
+    private Tour tour;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void buildTour() {
+        random = new SplittableRandom(DatasetState.SEED);
+        int[] route = new int[size];
+        for (int i = 0; i < size; i++) {
+            route[i] = i;
+        }
+        tour = structure == Structure.TWO_LEVEL ? new TwoLevelTour(route) : new ArrayTour(route);
+    }
+
+    @Benchmark
+    public int reverse() {
+        int from = random.nextInt(size);
+        int to = random.nextInt(size);
+        tour.reverse(from, to);
+        return tour.next(from);
+    }
+}
@@ -0,0 +1,52 @@
+package genetic_algorithms_tsp.genetic_algorithm;
+
+import genetic_algorithms_tsp.benchmarks.DatasetState;
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm.CrossoverType;
+import genetic_algorithms_tsp.genetic_objects.Population;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * One full generation, createNextGeneration and its bookkeeping, with the settings of the default preset
+ * on a single thread. Every iteration starts again from the same random population. In the package of
+ * GeneticAlgorithm to reach evolve.
+ */
+public class GenerationBenchmark extends DatasetState {
+    private static final int POPULATION_SIZE = 800;
+
+    @Param({"ONE_POINT", "EDGE_ASSEMBLY"})
+    public CrossoverType crossoverType;
+
+    private Population population;
+    private GeneticAlgorithm geneticAlgorithm;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        population = new Population(POPULATION_SIZE);
+        population.populate(distanceMatrix, random);
+    }
+
+    @Setup(Level.Iteration)
+    public void startRun() {
+        geneticAlgorithm = new GeneticAlgorithm();
+        geneticAlgorithm.setPopulation(population);
+        geneticAlgorithm.setK(5);
+        geneticAlgorithm.setElitismValue(1);
+        geneticAlgorithm.setCrossoverRate(0.95);
+        geneticAlgorithm.setMutationRate(0.05);
+        geneticAlgorithm.forceUniqueness(true);
+        geneticAlgorithm.setCrossoverType(crossoverType);
+        geneticAlgorithm.setMutationType(GeneticAlgorithm.MutationType.SCRAMBLE);
+        geneticAlgorithm.setSeed(SEED);
+        geneticAlgorithm.setThreads(1);
+        geneticAlgorithm.start();
+    }
+
+    @Benchmark
+    public int createNextGeneration() {
+        geneticAlgorithm.evolve(1);
+        return geneticAlgorithm.getMostFitLast().getDistance();
+    }
+}
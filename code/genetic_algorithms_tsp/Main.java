@@ -1,10 +1,23 @@
 package genetic_algorithms_tsp;
 
+import genetic_algorithms_tsp.batch.BatchRunner;
+import genetic_algorithms_tsp.batch.Tuner;
 import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm;
 
+import java.util.Arrays;
+
 public class Main {
     public static void main (String[] args) {
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));     // Headless, see BatchRunner.
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tune")) {
+            Tuner.main(Arrays.copyOfRange(args, 1, args.length));           // Headless, see Tuner.
+            return;
+        }
         GeneticAlgorithm geneticAlgorithm = Preset.getDefaultGA();
+        geneticAlgorithm.setThreads(Runtime.getRuntime().availableProcessors());
         geneticAlgorithm.run_VisualGA();
         geneticAlgorithm.showResults();
         geneticAlgorithm.showProperties();
@@ -12,4 +25,4 @@ public class Main {
         geneticAlgorithm.printProperties();
         geneticAlgorithm.printResults();
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,37 @@ package genetic_algorithms_tsp;
 
 import java.util.Random;
 import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm;
-import static genetic_algorithms_tsp.genetic_objects.Population.fromDataSet;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.Population;
+import genetic_algorithms_tsp.genetic_objects.SeedMix;
+import genetic_algorithms_tsp.import_data.ImportData;
 
 public class Preset {
+    public static final int POPULATION_SIZE = 800;
+
     public static GeneticAlgorithm getDefaultGA() {
-        Random r = new Random();
-        r.setSeed(new Random().nextLong());
+        return getDefaultGA(ImportData.getDistanceMatrix(), POPULATION_SIZE, new Random().nextLong());
+    }
+
+    // The default settings on the given data set, on one thread, so the same seed gives the same run on any machine.
+    public static GeneticAlgorithm getDefaultGA(DistanceMatrix distanceMatrix, int popSize, long seed) {
+        Random r = new Random(seed);
 
-        int popSize = 800;      // Size of the population.
         int maxGen = 1000;      // Number of generations to run.
         double crossoverRate = 0.95;
         double mutationRate = 0.05;
 
+        SeedMix seedMix = new SeedMix();    // Part of the first population built by heuristics, the rest is random.
+        seedMix.setShare(SeedMix.SeedType.NEAREST_NEIGHBOR, 0.05);
+        seedMix.setShare(SeedMix.SeedType.GREEDY_EDGE, 0.025);
+        seedMix.setShare(SeedMix.SeedType.SPACE_FILLING_CURVE, 0.025);
+
+        Population population = new Population(popSize);
+        population.populate(distanceMatrix, r, seedMix);
+
         GeneticAlgorithm geneticAlgorithm = new GeneticAlgorithm();
 
-        geneticAlgorithm.setPopulation(fromDataSet(popSize, r));
+        geneticAlgorithm.setPopulation(population);
         geneticAlgorithm.setMaxGen(maxGen);
         geneticAlgorithm.setK(5);
         geneticAlgorithm.setElitismValue(1);
@@ -25,6 +41,7 @@ public class Preset {
         geneticAlgorithm.forceUniqueness(true);
         geneticAlgorithm.setCrossoverType(GeneticAlgorithm.CrossoverType.ONE_POINT);
         geneticAlgorithm.setMutationType(GeneticAlgorithm.MutationType.SCRAMBLE);
+        geneticAlgorithm.setSeed(r.nextLong());
 
         return geneticAlgorithm;
     }
@@ -0,0 +1,110 @@
+package genetic_algorithms_tsp.batch;
+
+import genetic_algorithms_tsp.Preset;
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.Stagnation;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.TargetDistance;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.TimeLimit;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * One run of a batch: the default genetic algorithm of Preset on an instance with a seed, and the
+ * settings of one point of the parameter grid on top. Every run uses a single thread, the batch
+ * runs several at once instead.
+ */
+public class BatchRun implements Callable<RunResult> {
+
+    // Settings a parameter grid may vary.
+    public static final List<String> PARAMETERS = List.of("populationSize", "maxGen", "k", "elitism",
+            "crossoverType", "crossoverRate", "mutationType", "mutationRate", "selectionType",
+            "selectionPressure", "localSearchType", "localSearchRate", "localSearchMaxMoves",
+            "stagnation", "timeLimit", "targetGap");
+
+    private final int index;
+    private final String instance;
+    private final DistanceMatrix distanceMatrix;
+    private final long seed;
+    private final Map<String, String> settings;
+
+    public BatchRun(int index, String instance, DistanceMatrix distanceMatrix, long seed, Map<String, String> settings) {
+        for (String name : settings.keySet()) {
+            if (!PARAMETERS.contains(name)) {
+                throw new IllegalArgumentException("Unknown parameter " + name + ", expected one of " + PARAMETERS + ".");
+            }
+        }
+        this.index = index;
+        this.instance = instance;
+        this.distanceMatrix = distanceMatrix;
+        this.seed = seed;
+        this.settings = settings;
+    }
+
+    @Override
+    public RunResult call() {
+        Integer optimum = KnownOptima.get(instance);
+        long startTime = System.nanoTime();
+        try {
+            GeneticAlgorithm geneticAlgorithm = create(optimum);
+            geneticAlgorithm.run();
+            return new RunResult(index, instance, seed, settings, optimum,
+                    geneticAlgorithm.getMostFitLast().getDistance(), geneticAlgorithm.getGeneration(),
+                    geneticAlgorithm.getStopReason(), (System.nanoTime() - startTime) / 1_000_000,
+                    geneticAlgorithm.getEvaluations(), null);
+        } catch (RuntimeException e) {
+            // A failed run is reported in its row, the rest of the batch goes on.
+            return new RunResult(index, instance, seed, settings, optimum, -1, 0, null,
+                    (System.nanoTime() - startTime) / 1_000_000, 0, e.toString());
+        }
+    }
+
+    private GeneticAlgorithm create(Integer optimum) {
+        int popSize = settings.containsKey("populationSize")
+                ? Integer.parseInt(settings.get("populationSize")) : Preset.POPULATION_SIZE;
+        GeneticAlgorithm geneticAlgorithm = Preset.getDefaultGA(distanceMatrix, popSize, seed);
+        geneticAlgorithm.setThreads(1);
+
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            String name = setting.getKey();
+            String value = setting.getValue();
+            if (name.equals("maxGen")) {
+                geneticAlgorithm.setMaxGen(Integer.parseInt(value));
+            } else if (name.equals("k")) {
+                geneticAlgorithm.setK(Integer.parseInt(value));
+            } else if (name.equals("elitism")) {
+                geneticAlgorithm.setElitismValue(Integer.parseInt(value));
+            } else if (name.equals("crossoverType")) {
+                geneticAlgorithm.setCrossoverType(GeneticAlgorithm.CrossoverType.valueOf(value));
+            } else if (name.equals("crossoverRate")) {
+                geneticAlgorithm.setCrossoverRate(Double.parseDouble(value));
+            } else if (name.equals("mutationType")) {
+                geneticAlgorithm.setMutationType(GeneticAlgorithm.MutationType.valueOf(value));
+            } else if (name.equals("mutationRate")) {
+                geneticAlgorithm.setMutationRate(Double.parseDouble(value));
+            } else if (name.equals("selectionType")) {
+                geneticAlgorithm.setSelectionType(GeneticAlgorithm.SelectionType.valueOf(value));
+            } else if (name.equals("selectionPressure")) {
+                geneticAlgorithm.setSelectionPressure(Double.parseDouble(value));
+            } else if (name.equals("localSearchType")) {
+                geneticAlgorithm.setLocalSearchType(GeneticAlgorithm.LocalSearchType.valueOf(value));
+            } else if (name.equals("localSearchRate")) {
+                geneticAlgorithm.setLocalSearchRate(Double.parseDouble(value));
+            } else if (name.equals("localSearchMaxMoves")) {
+                geneticAlgorithm.setLocalSearchMaxMoves(Integer.parseInt(value));
+            } else if (name.equals("stagnation")) {
+                geneticAlgorithm.addStopCriterion(new Stagnation(Integer.parseInt(value)));
+            } else if (name.equals("timeLimit")) {
+                geneticAlgorithm.addStopCriterion(new TimeLimit(Long.parseLong(value)));
+            } else if (name.equals("targetGap")) {
+                if (optimum == null) {
+                    throw new IllegalArgumentException("No known optimum of " + instance + " for targetGap.");
+                }
+                geneticAlgorithm.addStopCriterion(TargetDistance.gapToOptimum(optimum, Double.parseDouble(value)));
+            }
+        }
+        return geneticAlgorithm;
+    }
+}
@@ -0,0 +1,236 @@
+package genetic_algorithms_tsp.batch;
+
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.import_data.ImportData;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless batch mode: runs the default genetic algorithm on every instance, for every point of a
+ * parameter grid and every seed, on a fixed number of worker threads, and writes one row per run.
+ *
+ *   batch [options] instance...
+ *
+ * An instance is a TSPLIB file, or the name of a bundled data set such as att48. Options:
+ *   --seeds 1,2,3 or 1..10      seeds of the runs, default 1
+ *   --param name=v1,v2,...      values of a parameter, every combination of the values is run
+ *   --preset file               settings written by the Tuner, for the parameters not given with --param
+ *   --workers n                 runs at the same time, default the number of processors
+ *   --output file               .csv or .jsonl, default CSV on the standard output
+ *   --format csv|jsonl          overrides the extension of the output file
+ */
+public class BatchRunner {
+
+    public static void main(String[] args) {
+        int failed;
+        try {
+            failed = new BatchRunner(args).run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: batch [--seeds 1..10] [--param name=v1,v2]... [--preset file] [--workers n]"
+                    + " [--output results.csv|results.jsonl] [--format csv|jsonl] instance...");
+            System.err.println("Parameters: " + BatchRun.PARAMETERS);
+            System.exit(2);
+            return;
+        }
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private final List<String> instances = new ArrayList<>();
+    private final List<Long> seeds = new ArrayList<>();
+    private final Map<String, List<String>> grid = new LinkedHashMap<>();
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private Path output;
+    private ResultWriter.Format format;
+    private Map<String, String> preset = Map.of();
+
+    public BatchRunner(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + arg + ".");
+                }
+                option(arg, args[++i]);
+            } else {
+                instances.add(arg);
+            }
+        }
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("No instance given.");
+        }
+        if (seeds.isEmpty()) {
+            seeds.add(1L);
+        }
+        for (Map.Entry<String, String> setting : preset.entrySet()) {
+            grid.putIfAbsent(setting.getKey(), List.of(setting.getValue()));
+        }
+        if (format == null) {
+            format = output == null ? ResultWriter.Format.CSV : ResultWriter.formatOf(output.toString());
+        }
+    }
+
+    private void option(String name, String value) {
+        if (name.equals("--seeds")) {
+            parseSeeds(value, seeds);
+        } else if (name.equals("--param")) {
+            parseParameter(value, grid);
+        } else if (name.equals("--preset")) {
+            preset = SettingsFile.read(Path.of(value));
+        } else if (name.equals("--workers")) {
+            workers = (int) parseLong(value);
+            if (workers < 1) {
+                throw new IllegalArgumentException("Workers must be greater than 0.");
+            }
+        } else if (name.equals("--output")) {
+            output = Path.of(value);
+        } else if (name.equals("--format")) {
+            try {
+                format = ResultWriter.Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown format " + value + ", expected csv or jsonl.");
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown option " + name + ".");
+        }
+    }
+
+    static long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + value + ".");
+        }
+    }
+
+    // Seeds given as 1,2,3 or as the range 1..10, or both.
+    static void parseSeeds(String value, List<Long> seeds) {
+        for (String part : value.split(",")) {
+            int range = part.indexOf("..");
+            if (range >= 0) {
+                long first = parseLong(part.substring(0, range));
+                long last = parseLong(part.substring(range + 2));
+                for (long seed = first; seed <= last; seed++) {
+                    seeds.add(seed);
+                }
+            } else {
+                seeds.add(parseLong(part));
+            }
+        }
+    }
+
+    // Values of a parameter given as name=v1,v2, added to those it already has.
+    static void parseParameter(String value, Map<String, List<String>> grid) {
+        int equals = value.indexOf('=');
+        if (equals <= 0 || equals == value.length() - 1) {
+            throw new IllegalArgumentException("Parameter must be given as name=v1,v2: " + value + ".");
+        }
+        String parameter = value.substring(0, equals);
+        if (!BatchRun.PARAMETERS.contains(parameter)) {
+            throw new IllegalArgumentException("Unknown parameter " + parameter + ".");
+        }
+        List<String> values = grid.computeIfAbsent(parameter, p -> new ArrayList<>());
+        for (String parameterValue : value.substring(equals + 1).split(",")) {
+            values.add(parameterValue.trim());
+        }
+    }
+
+    // Every combination of the values of the grid, the first parameter varying slowest.
+    List<Map<String, String>> combinations() {
+        List<Map<String, String>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+        for (Map.Entry<String, List<String>> parameter : grid.entrySet()) {
+            List<Map<String, String>> extended = new ArrayList<>();
+            for (Map<String, String> combination : combinations) {
+                for (String value : parameter.getValue()) {
+                    Map<String, String> settings = new LinkedHashMap<>(combination);
+                    settings.put(parameter.getKey(), value);
+                    extended.add(settings);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations;
+    }
+
+    // Runs the whole batch and returns the number of failed runs.
+    public int run() {
+        List<BatchRun> runs = new ArrayList<>();
+        for (String instance : instances) {
+            DistanceMatrix distanceMatrix = load(instance);
+            distanceMatrix.getNeighborList();       // Built once here rather than by the first runs at the same time.
+            String name = distanceMatrix.getInstance().getName();
+            for (Map<String, String> settings : combinations()) {
+                for (long seed : seeds) {
+                    runs.add(new BatchRun(runs.size(), name, distanceMatrix, seed, settings));
+                }
+            }
+        }
+        System.err.println("Batch of " + runs.size() + " runs on " + workers + " workers.");
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        int failed = 0;
+        try (ResultWriter writer = new ResultWriter(openOutput(), format, new ArrayList<>(grid.keySet()))) {
+            ExecutorCompletionService<RunResult> completion = new ExecutorCompletionService<>(executor);
+            for (BatchRun run : runs) {
+                completion.submit(run);
+            }
+            for (int done = 1; done <= runs.size(); done++) {
+                RunResult result = completion.take().get();
+                writer.write(result);
+                if (result.failed()) {
+                    failed++;
+                }
+                System.err.println(done + "/" + runs.size() + " " + result.getInstance() + " seed " + result.getSeed()
+                        + (result.failed() ? " failed: " + result.getError() : " " + result.getBestDistance()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the results.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Run failed outside of the genetic algorithm.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return failed;
+    }
+
+    // Instance from a TSPLIB file, or a bundled data set by name.
+    static DistanceMatrix load(String instance) {
+        Path path = Path.of(instance);
+        if (Files.isRegularFile(path)) {
+            return ImportData.getDistanceMatrix(path);
+        }
+        return ImportData.getDistanceMatrix("dataset/" + instance + (instance.endsWith(".tsp") ? "" : ".tsp"));
+    }
+
+    private Writer openOutput() throws IOException {
+        if (output == null) {
+            // The standard output stays open after the batch.
+            return new OutputStreamWriter(System.out, StandardCharsets.UTF_8) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+    }
+}
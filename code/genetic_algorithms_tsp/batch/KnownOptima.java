@@ -0,0 +1,27 @@
+package genetic_algorithms_tsp.batch;
+
+import java.util.Map;
+
+// Length of the optimal tours of the bundled data sets, as published with TSPLIB.
+public class KnownOptima {
+
+    private static final Map<String, Integer> OPTIMA = Map.of(
+            "att48", 10628,
+            "bier127", 118282,
+            "ch150", 6528,
+            "d198", 15780,
+            "a280", 2579,
+            "pr264", 49135,
+            "pr299", 48191,
+            "rat575", 6773);
+
+    // Optimum of the instance of that name, or null if it is not known.
+    public static Integer get(String name) {
+        return OPTIMA.get(name);
+    }
+
+    // How much longer the distance is than the optimum, in percent.
+    public static double gap(int distance, int optimum) {
+        return 100.0 * (distance - optimum) / optimum;
+    }
+}
@@ -0,0 +1,136 @@
+package genetic_algorithms_tsp.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes one row per run as CSV with a header, or as JSON Lines with one object per run. The columns
+ * are the run, its instance and seed, the parameters of the grid, then the results. Every row is
+ * flushed as soon as it is written, so that the results of a long batch can be followed while it runs.
+ */
+public class ResultWriter implements Closeable {
+
+    public enum Format {
+        CSV,
+        JSONL
+    }
+
+    private final Writer writer;
+    private final Format format;
+    private final List<String> parameters;
+
+    public ResultWriter(Writer writer, Format format, List<String> parameters) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        this.parameters = parameters;
+        if (format == Format.CSV) {
+            List<String> header = new ArrayList<>(List.of("run", "instance", "seed"));
+            header.addAll(parameters);
+            header.addAll(List.of("bestDistance", "optimum", "gap", "generations", "stopReason", "wallMillis",
+                    "evaluations", "error"));
+            writer.write(String.join(",", header));
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    // Format of an output file by its extension, CSV unless it ends in .jsonl or .json.
+    public static Format formatOf(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jsonl") || lower.endsWith(".json") ? Format.JSONL : Format.CSV;
+    }
+
+    // Called by the workers as their runs finish.
+    public synchronized void write(RunResult result) throws IOException {
+        List<String> names = new ArrayList<>(List.of("run", "instance", "seed"));
+        List<Object> values = new ArrayList<>(List.of(result.getIndex(), result.getInstance(), result.getSeed()));
+        for (String parameter : parameters) {
+            names.add(parameter);
+            values.add(result.getSettings().get(parameter));
+        }
+        names.addAll(List.of("bestDistance", "optimum", "gap", "generations", "stopReason", "wallMillis",
+                "evaluations", "error"));
+        values.add(result.failed() ? null : result.getBestDistance());
+        values.add(result.getOptimum());
+        values.add(result.getGap() == null ? null : BigDecimal.valueOf(result.getGap()).setScale(4, RoundingMode.HALF_UP));
+        values.add(result.getGenerations());
+        values.add(result.getStopReason());
+        values.add(result.getWallMillis());
+        values.add(result.getEvaluations());
+        values.add(result.getError());
+
+        StringBuilder row = new StringBuilder();
+        if (format == Format.CSV) {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append(csvField(values.get(i)));
+            }
+        } else {
+            row.append('{');
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                row.append(jsonString(names.get(i))).append(':').append(jsonValue(values.get(i)));
+            }
+            row.append('}');
+        }
+        writer.write(row.append('\n').toString());
+        writer.flush();
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    // Results that are numbers stay numbers; everything else, the values of the parameters included, is a string.
+    private static String jsonValue(Object value) {
+        if (value == null) {
+            return "null";
+        } else if (value instanceof Number) {
+            return value.toString();
+        }
+        return jsonString(value.toString());
+    }
+
+    private static String jsonString(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
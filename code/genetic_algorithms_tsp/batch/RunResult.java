@@ -0,0 +1,94 @@
+package genetic_algorithms_tsp.batch;
+
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.StopReason;
+
+import java.util.Map;
+
+// Outcome of one run of a batch, one row of its results.
+public class RunResult {
+
+    private final int index;
+    private final String instance;
+    private final long seed;
+    private final Map<String, String> settings;
+    private final Integer optimum;          // Null if not known.
+    private final int bestDistance;         // -1 if the run failed.
+    private final int generations;
+    private final StopReason stopReason;
+    private final long wallMillis;
+    private final long evaluations;
+    private final String error;             // Null unless the run failed.
+
+    RunResult(int index, String instance, long seed, Map<String, String> settings, Integer optimum,
+              int bestDistance, int generations, StopReason stopReason, long wallMillis, long evaluations,
+              String error) {
+        this.index = index;
+        this.instance = instance;
+        this.seed = seed;
+        this.settings = settings;
+        this.optimum = optimum;
+        this.bestDistance = bestDistance;
+        this.generations = generations;
+        this.stopReason = stopReason;
+        this.wallMillis = wallMillis;
+        this.evaluations = evaluations;
+        this.error = error;
+    }
+
+    // Position of the run in the batch, rows are written in the order the runs finish.
+    public int getIndex() {
+        return index;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Map<String, String> getSettings() {
+        return settings;
+    }
+
+    public Integer getOptimum() {
+        return optimum;
+    }
+
+    public int getBestDistance() {
+        return bestDistance;
+    }
+
+    // Gap of the best distance to the optimum in percent, null if either is missing.
+    public Double getGap() {
+        if (optimum == null || error != null) {
+            return null;
+        }
+        return KnownOptima.gap(bestDistance, optimum);
+    }
+
+    public int getGenerations() {
+        return generations;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    public long getWallMillis() {
+        return wallMillis;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
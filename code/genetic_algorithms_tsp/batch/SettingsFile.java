@@ -0,0 +1,52 @@
+package genetic_algorithms_tsp.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Settings of a run as name=value lines, one per parameter of BatchRun. Lines starting with # are comments.
+public class SettingsFile {
+
+    public static Map<String, String> read(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path + ".", e);
+        }
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int equals = line.indexOf('=');
+            String name = equals < 0 ? line : line.substring(0, equals).trim();
+            if (equals < 0 || !BatchRun.PARAMETERS.contains(name)) {
+                throw new IllegalArgumentException("Invalid setting in " + path + ": " + line + ".");
+            }
+            settings.put(name, line.substring(equals + 1).trim());
+        }
+        return settings;
+    }
+
+    public static void write(Path path, List<String> comments, Map<String, String> settings) {
+        StringBuilder sb = new StringBuilder();
+        for (String comment : comments) {
+            sb.append("# ").append(comment).append('\n');
+        }
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            sb.append(setting.getKey()).append('=').append(setting.getValue()).append('\n');
+        }
+        try {
+            Files.writeString(path, sb, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + path + ".", e);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package genetic_algorithms_tsp.batch;
+
+import genetic_algorithms_tsp.genetic_algorithm.GeneticAlgorithm;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tunes the settings of the genetic algorithm for families of instances by successive halving.
+ * Random configurations from the search space, plus the defaults of Preset, are run on every instance
+ * of the family with every seed for a few generations; the best third goes on to three times as many
+ * generations, and so on until the last rung runs the full number of generations. A configuration
+ * scores the mean ratio of its best distances to the optimum, or to the best distance of the rung when
+ * the optimum is not known. Runs are single-threaded and deterministic for their seed, so a longer run
+ * repeats the curve that the shorter run was judged on.
+ * The winner of every family is written as a settings file that batch --preset reads.
+ *
+ *   tune [options] family=instance,instance... | instance...
+ *
+ * Options:
+ *   --configs n             random configurations to start from, default 26, plus the defaults
+ *   --eta n                 one in eta configurations goes on to the next rung, default 3
+ *   --maxGen n              generations of the last rung, default 500
+ *   --seeds 1..3            seeds every configuration runs with, default 1..3
+ *   --param name=v1,v2      values of a parameter to search instead of those of the default space
+ *   --workers n             runs at the same time, default the number of processors
+ *   --output dir            directory of the settings files, default tuned
+ *   --sample-seed n         seed of the random configurations, default 0
+ */
+public class Tuner {
+
+    // Values searched for every parameter by default.
+    private static final Map<String, List<String>> SPACE = new LinkedHashMap<>();
+
+    static {
+        SPACE.put("populationSize", List.of("100", "200", "400", "800"));
+        SPACE.put("k", List.of("2", "3", "5", "7"));
+        SPACE.put("elitism", List.of("1", "2", "4"));
+        SPACE.put("crossoverType", names(GeneticAlgorithm.CrossoverType.values()));
+        SPACE.put("crossoverRate", List.of("0.7", "0.8", "0.9", "0.95", "1"));
+        SPACE.put("mutationType", names(GeneticAlgorithm.MutationType.values()));
+        SPACE.put("mutationRate", List.of("0.01", "0.02", "0.05", "0.1", "0.2"));
+        SPACE.put("selectionType", names(GeneticAlgorithm.SelectionType.values()));
+        SPACE.put("selectionPressure", List.of("1.2", "1.5", "2"));
+        SPACE.put("localSearchRate", List.of("0", "0.01", "0.05"));
+    }
+
+    private static List<String> names(Enum<?>[] values) {
+        List<String> names = new ArrayList<>();
+        for (Enum<?> value : values) {
+            names.add(value.name());
+        }
+        return names;
+    }
+
+    public static void main(String[] args) {
+        try {
+            new Tuner(args).run();
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: tune [--configs n] [--eta n] [--maxGen n] [--seeds 1..3] [--param name=v1,v2]..."
+                    + " [--workers n] [--output dir] [--sample-seed n] family=instance,instance... | instance...");
+            System.err.println("Parameters: " + BatchRun.PARAMETERS);
+            System.exit(2);
+        }
+    }
+
+    private final Map<String, List<String>> families = new LinkedHashMap<>();
+    private final Map<String, List<String>> space = new LinkedHashMap<>(SPACE);
+    private final List<Long> seeds = new ArrayList<>();
+    private int configurations = 26;
+    private int eta = 3;
+    private int maxGen = 500;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private Path output = Path.of("tuned");
+    private long sampleSeed;
+
+    public Tuner(String[] args) {
+        Map<String, List<String>> restricted = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--")) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value of " + arg + ".");
+                }
+                option(arg, args[++i], restricted);
+            } else if (arg.indexOf('=') > 0) {
+                int equals = arg.indexOf('=');
+                families.put(arg.substring(0, equals), List.of(arg.substring(equals + 1).split(",")));
+            } else {
+                String name = Path.of(arg).getFileName().toString();
+                families.put(name.endsWith(".tsp") ? name.substring(0, name.length() - 4) : name, List.of(arg));
+            }
+        }
+        if (families.isEmpty()) {
+            throw new IllegalArgumentException("No instance given.");
+        }
+        if (seeds.isEmpty()) {
+            BatchRunner.parseSeeds("1..3", seeds);
+        }
+        space.putAll(restricted);
+        space.remove("maxGen");     // Set by the rungs.
+    }
+
+    private void option(String name, String value, Map<String, List<String>> restricted) {
+        if (name.equals("--configs")) {
+            configurations = (int) BatchRunner.parseLong(value);
+            if (configurations < 0) {
+                throw new IllegalArgumentException("Configurations cannot be negative.");
+            }
+        } else if (name.equals("--eta")) {
+            eta = (int) BatchRunner.parseLong(value);
+            if (eta < 2) {
+                throw new IllegalArgumentException("Eta must be at least 2.");
+            }
+        } else if (name.equals("--maxGen")) {
+            maxGen = (int) BatchRunner.parseLong(value);
+            if (maxGen < 1) {
+                throw new IllegalArgumentException("Max generation must be greater than 0.");
+            }
+        } else if (name.equals("--seeds")) {
+            BatchRunner.parseSeeds(value, seeds);
+        } else if (name.equals("--param")) {
+            BatchRunner.parseParameter(value, restricted);
+        } else if (name.equals("--workers")) {
+            workers = (int) BatchRunner.parseLong(value);
+            if (workers < 1) {
+                throw new IllegalArgumentException("Workers must be greater than 0.");
+            }
+        } else if (name.equals("--output")) {
+            output = Path.of(value);
+        } else if (name.equals("--sample-seed")) {
+            sampleSeed = BatchRunner.parseLong(value);
+        } else {
+            throw new IllegalArgumentException("Unknown option " + name + ".");
+        }
+    }
+
+    // Tunes every family in turn and returns the settings file of each.
+    public List<Path> run() {
+        try {
+            Files.createDirectories(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create " + output + ".", e);
+        }
+        List<Path> files = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            for (Map.Entry<String, List<String>> family : families.entrySet()) {
+                files.add(tune(family.getKey(), family.getValue(), executor));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return files;
+    }
+
+    private Path tune(String family, List<String> instances, ExecutorService executor) {
+        List<DistanceMatrix> distanceMatrices = new ArrayList<>();
+        for (String instance : instances) {
+            DistanceMatrix distanceMatrix = BatchRunner.load(instance);
+            distanceMatrix.getNeighborList();
+            distanceMatrices.add(distanceMatrix);
+        }
+
+        List<Map<String, String>> candidates = sample();
+        int rungs = 1;
+        for (long size = candidates.size(); size > eta; size = (size + eta - 1) / eta) {
+            rungs++;
+        }
+
+        double[] scores = null;
+        for (int rung = 0; rung < rungs; rung++) {
+            int generations = (int) Math.max(1, maxGen / Math.pow(eta, rungs - 1 - rung));
+            scores = evaluate(candidates, distanceMatrices, generations, executor);
+            System.err.printf(Locale.ROOT, "%s rung %d: %d configurations at %d generations, best score %.4f%n",
+                    family, rung + 1, candidates.size(), generations, min(scores));
+
+            Integer[] ranking = rank(scores);
+            int kept = rung == rungs - 1 ? candidates.size() : (candidates.size() + eta - 1) / eta;
+            List<Map<String, String>> survivors = new ArrayList<>();
+            double[] survivorScores = new double[kept];
+            for (int i = 0; i < kept; i++) {
+                survivors.add(candidates.get(ranking[i]));
+                survivorScores[i] = scores[ranking[i]];
+            }
+            candidates = survivors;
+            scores = survivorScores;
+        }
+
+        Map<String, String> winner = new LinkedHashMap<>(candidates.get(0));
+        winner.put("maxGen", String.valueOf(maxGen));
+        List<String> comments = List.of(
+                "Tuned by successive halving on " + String.join(", ", instances) + " with seeds " + seeds + ".",
+                String.format(Locale.ROOT, "Mean ratio of the best distance to the optimum %.4f at %d generations.",
+                        scores[0], maxGen),
+                candidates.get(0).isEmpty() ? "The defaults of Preset won." : "Parameters not listed keep the defaults of Preset.");
+        Path file = output.resolve(family + ".properties");
+        SettingsFile.write(file, comments, winner);
+
+        System.out.println(family + ": " + winner + " -> " + file);
+        for (int i = 1; i < candidates.size(); i++) {
+            System.out.printf(Locale.ROOT, "  runner-up %.4f %s%n", scores[i], candidates.get(i));
+        }
+        return file;
+    }
+
+    // The defaults of Preset, then distinct random configurations of the space.
+    private List<Map<String, String>> sample() {
+        SplittableRandom random = new SplittableRandom(sampleSeed);
+        List<Map<String, String>> candidates = new ArrayList<>();
+        Set<Map<String, String>> seen = new HashSet<>();
+        candidates.add(new LinkedHashMap<>());
+        for (int attempt = 0; candidates.size() <= configurations && attempt < 100 * (configurations + 1); attempt++) {
+            Map<String, String> candidate = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> parameter : space.entrySet()) {
+                List<String> values = parameter.getValue();
+                candidate.put(parameter.getKey(), values.get(random.nextInt(values.size())));
+            }
+            if (seen.add(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    // Runs every candidate on every instance with every seed, in parallel, and scores the candidates.
+    private double[] evaluate(List<Map<String, String>> candidates, List<DistanceMatrix> distanceMatrices,
+                              int generations, ExecutorService executor) {
+        int runsPerCandidate = distanceMatrices.size() * seeds.size();
+        List<BatchRun> runs = new ArrayList<>();
+        for (Map<String, String> candidate : candidates) {
+            Map<String, String> settings = new LinkedHashMap<>(candidate);
+            settings.put("maxGen", String.valueOf(generations));
+            for (DistanceMatrix distanceMatrix : distanceMatrices) {
+                for (long seed : seeds) {
+                    runs.add(new BatchRun(runs.size(), distanceMatrix.getInstance().getName(), distanceMatrix, seed, settings));
+                }
+            }
+        }
+
+        RunResult[] results = new RunResult[runs.size()];
+        try {
+            List<Future<RunResult>> futures = executor.invokeAll(runs);
+            for (int i = 0; i < results.length; i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tuning was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Run failed outside of the genetic algorithm.", e.getCause());
+        }
+
+        // Reference distance of every instance and seed: the optimum, or the best of the rung.
+        double[] references = new double[runsPerCandidate];
+        Arrays.fill(references, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < results.length; i++) {
+            RunResult result = results[i];
+            int j = i % runsPerCandidate;
+            if (result.getOptimum() != null) {
+                references[j] = result.getOptimum();
+            } else if (!result.failed()) {
+                references[j] = Math.min(references[j], result.getBestDistance());
+            }
+        }
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < results.length; i++) {
+            RunResult result = results[i];
+            double ratio = result.failed() ? Double.POSITIVE_INFINITY
+                    : result.getBestDistance() / references[i % runsPerCandidate];
+            scores[i / runsPerCandidate] += ratio / runsPerCandidate;
+        }
+        return scores;
+    }
+
+    // Indices of the candidates from the best score to the worst, earlier candidates first on ties.
+    private static Integer[] rank(double[] scores) {
+        Integer[] ranking = new Integer[scores.length];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, Comparator.comparingDouble(i -> scores[i]));
+        return ranking;
+    }
+
+    private static double min(double[] scores) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double score : scores) {
+            min = Math.min(min, score);
+        }
+        return min;
+    }
+}
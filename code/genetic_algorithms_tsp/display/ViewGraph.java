@@ -1,5 +1,7 @@
 package genetic_algorithms_tsp.display;
 
+import genetic_algorithms_tsp.genetic_objects.History;
+
 import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
@@ -9,7 +11,7 @@ public class ViewGraph extends JFrame {
     private static final int HEIGHT = 900 / 16 * 9;
     private static final int OFFSET = 150;
 
-    private final ArrayList<ArrayList<Integer>> yValues;
+    private final ArrayList<History> yValues;
     private final ArrayList<String> legend;
 
     private double yScale = 1.0;
@@ -17,11 +19,13 @@ public class ViewGraph extends JFrame {
     private int maxY = 0;
     private int minY = Integer.MAX_VALUE;
 
-    public ViewGraph(ArrayList<ArrayList<Integer>> yValues, ArrayList<String> legend) {
+    // Each history is drawn through the averages of its buckets, with their minimum and maximum around
+    // them once the buckets cover several generations.
+    public ViewGraph(ArrayList<History> yValues, ArrayList<String> legend) {
 
         for (int i = 1; i < yValues.size(); i++) {
             if (yValues.get(i).size() != yValues.get(i - 1).size()) {
-                throw new IllegalArgumentException("All lists must contain the same number of elements.");
+                throw new IllegalArgumentException("All histories must contain the same number of generations.");
             }
         }
 
@@ -36,23 +40,18 @@ public class ViewGraph extends JFrame {
         setWindowProperties();
     }
 
-    private void setScale(ArrayList<ArrayList<Integer>> yValues) {
+    private void setScale(ArrayList<History> yValues) {
 
         xScale = ((double) yValues.get(0).size()) / ((double) ViewGraph.WIDTH - OFFSET);
 
-        for (ArrayList<Integer> list : yValues) {
-            for (Integer y : list) {
-
-                if (y > maxY && y > ViewGraph.HEIGHT - OFFSET) {
-                    yScale = ((double) y / ((double) ViewGraph.HEIGHT - OFFSET));
-                    maxY = y;
-                }
-
-                if (y < minY) {
-                    minY = y;
-                }
-
+        for (History history : yValues) {
+            int y = history.getMax();
+            if (y > maxY && y > ViewGraph.HEIGHT - OFFSET) {
+                yScale = ((double) y / ((double) ViewGraph.HEIGHT - OFFSET));
+                maxY = y;
             }
+
+            minY = Math.min(minY, history.getMin());
         }
     }
 
@@ -129,7 +128,7 @@ public class ViewGraph extends JFrame {
             final int TOTAL_LABELS = 10;
             int startX = OFFSET / 2;
             int startY = ViewGraph.HEIGHT - OFFSET / 2;
-            int step = yValues.get(0).size() / TOTAL_LABELS;
+            int step = (int) (yValues.get(0).size() / TOTAL_LABELS);
 
             for (int i = 0; i < TOTAL_LABELS + 1; i++) {
                 int steps = i * step;
@@ -158,27 +157,36 @@ public class ViewGraph extends JFrame {
             }
         }
 
-        private void paintPlot(Graphics2D graphics, ArrayList<Integer> yValues) {
+        private void paintPlot(Graphics2D graphics, History yValues) {
 
-            int x = 0;
             int r = 1; // Radius.
             int o = OFFSET / 2;
 
-            int x1, y1, x2, y2;
+            Color color = graphics.getColor();
+            Color band = new Color(color.getRed(), color.getGreen(), color.getBlue(), 60);
 
-            x1 = (int) (++x / xScale) + o + r - r;
-            y1 = ViewGraph.HEIGHT - o - (int) (yValues.get(0) / yScale) - r;
-            graphics.fillOval(x1, y1, r * 2, r * 2);
+            int x1, y1, x2 = 0, y2 = 0;
 
-            for (int i = 1; i < yValues.size(); i++) {
+            for (int i = 0; i < yValues.getBucketCount(); i++) {
 
-                x1 = (int) (++x / xScale) + o + r - r;
-                y1 = ViewGraph.HEIGHT - o - (int) (yValues.get(i) / yScale) - r;
-                x2 = (int) ((x - 1) / xScale) + o + r - r;
-                y2 = ViewGraph.HEIGHT - o - (int) (yValues.get(i - 1) / yScale) - r;
+                // Generations are numbered from 1, the bucket is drawn at the middle of those it covers.
+                double generation = yValues.getFirstIndex(i) + (yValues.getCount(i) + 1) / 2.0;
+                x1 = (int) (generation / xScale) + o;
+                y1 = ViewGraph.HEIGHT - o - (int) (yValues.getAverage(i) / yScale) - r;
+
+                if (yValues.getBucketSize() > 1) {
+                    graphics.setColor(band);
+                    graphics.drawLine(x1 + r, ViewGraph.HEIGHT - o - (int) (yValues.getMin(i) / yScale),
+                            x1 + r, ViewGraph.HEIGHT - o - (int) (yValues.getMax(i) / yScale));
+                    graphics.setColor(color);
+                }
 
                 graphics.fillOval(x1, y1, r * 2, r * 2);
-                graphics.drawLine(x1 + r, y1 + r, x2 + r, y2 + r);
+                if (i > 0) {
+                    graphics.drawLine(x1 + r, y1 + r, x2 + r, y2 + r);
+                }
+                x2 = x1;
+                y2 = y1;
             }
         }
 
@@ -6,7 +6,7 @@ import java.awt.*;
 // Draws GA properties to the screen.
 public class ViewProperties extends JFrame {
     private final int WIDTH = 500;
-    private final int HEIGHT = WIDTH / 18*9;
+    private final int HEIGHT = WIDTH / 18*11;
     private final JPanel mainPanel;
     private final StringBuilder results;
 
@@ -0,0 +1,51 @@
+package genetic_algorithms_tsp.genetic_algorithm;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+
+// Summary of a generation that was just bred.
+public class GenerationEvent {
+
+    private final int generation;
+    private final Chromosome mostFit;
+    private final int averageDistance;
+    private final long evaluations;
+    private final long elapsedMillis;
+
+    GenerationEvent(int generation, Chromosome mostFit, int averageDistance, long evaluations, long elapsedMillis) {
+        this.generation = generation;
+        this.mostFit = mostFit;
+        this.averageDistance = averageDistance;
+        this.evaluations = evaluations;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Number of the generation, the first bred one being 1.
+    public int getGeneration() {
+        return generation;
+    }
+
+    public Chromosome getMostFit() {
+        return mostFit;
+    }
+
+    public int getBestDistance() {
+        return mostFit.getDistance();
+    }
+
+    public int getAverageDistance() {
+        return averageDistance;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Generation " + generation + ": best " + getBestDistance() + ", average " + averageDistance;
+    }
+}
@@ -0,0 +1,8 @@
+package genetic_algorithms_tsp.genetic_algorithm;
+
+// Notified on the thread running the genetic algorithm after every generation; an exception thrown here ends the run.
+@FunctionalInterface
+public interface GenerationListener {
+
+    void generationCompleted(GenerationEvent event);
+}
@@ -1,41 +1,98 @@
 package genetic_algorithms_tsp.genetic_algorithm;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
 
 import genetic_algorithms_tsp.display.ViewGraph;
 import genetic_algorithms_tsp.display.ViewProperties;
 import genetic_algorithms_tsp.display.ViewResults;
 import genetic_algorithms_tsp.display.ViewTSP;
 import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.ChromosomeSet;
 import genetic_algorithms_tsp.genetic_objects.City;
+import genetic_algorithms_tsp.genetic_objects.History;
 import genetic_algorithms_tsp.genetic_objects.Population;
 import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Crossover;
 import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Mutation;
 import genetic_algorithms_tsp.genetic_algorithm.genetic_operators.Selection;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.Budget;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.LinKernighan;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.OrOpt;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.ThreeOpt;
+import genetic_algorithms_tsp.genetic_algorithm.local_search.TwoOpt;
+import genetic_algorithms_tsp.genetic_algorithm.metrics.GenerationMetrics;
+import genetic_algorithms_tsp.genetic_algorithm.metrics.MetricsSink;
+import genetic_algorithms_tsp.genetic_algorithm.metrics.Phase;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.RunProgress;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.StopCriterion;
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.StopReason;
 
 public class GeneticAlgorithm {
-    private final Random random;
+    private static final int MAX_REMUTATIONS = 10;   // Mutations tried on a duplicate once the population has converged.
+
+    private SplittableRandom random;
     private Population population;
+    private Population nextGeneration;      // Storage of the generation being bred, swapped with population.
     private int maxGen;
     private double crossoverRate;
     private double mutationRate;
     private CrossoverType crossoverType;
     private MutationType mutationType;
+    private SelectionType selectionType;
+    private double selectionPressure;   // For linear rank selection, between 1 and 2.
+    private int[] matingPool;           // Ranks chosen by stochastic universal sampling for the current generation.
+    private LocalSearchType localSearchType;
+    private double localSearchRate;         // Chance of an offspring being improved by local search.
+    private int localSearchMaxMoves;        // Improving moves allowed per local search.
+    private long localSearchTimeLimit;      // Milliseconds allowed per local search.
     private int k;                  // For tournament selection.
     private int elitismValue;       // Quantity of Elite to carry along each generation.
-    private boolean finished;
+    private volatile boolean finished;
     private boolean forceUniqueness;
+    private ChromosomeSet chromosomesAdded;     // Duplicate checks, reused by every generation.
+    private ChromosomeSet[] workerChromosomesAdded;
+    private int threads;            // Workers breeding the offspring, 1 breeds on the calling thread.
+    private ForkJoinPool workers;
+    private final ArrayList<StopCriterion> stopCriteria;
+    private final Progress progress;
+    private volatile StopReason stopReason; // Null while running.
+    private volatile AtomicBoolean cancellation;   // Of the current run, null when no run is active.
+    private final CopyOnWriteArrayList<GenerationListener> generationListeners;
+    private final CopyOnWriteArrayList<MetricsSink> metricsSinks;
+    private Metrics metrics;            // Null unless a metrics sink is added, so that nothing is measured for nothing.
     private int averageDistanceOfFirstGeneration;
     private int bestDistanceOfFirstGeneration;
     private int averageDistanceOfLastGeneration;
     private int bestDistanceOfLastGeneration;
-    private final ArrayList<Integer> averageDistanceOfEachGeneration;
-    private final ArrayList<Integer> bestDistanceOfEachGeneration;
-    private Chromosome mostFitLast;
+    private final History averageDistanceHistory;
+    private final History bestDistanceHistory;
+    private Path historyFile;           // Every generation at full resolution, null for none.
+    private BufferedWriter historyWriter;
+    private volatile Chromosome mostFitLast;   // Read by other threads during a run in the background.
 
     public GeneticAlgorithm() {
         population = Population.getRandomPopulation(100, 500, new Random());
-        random = new Random();
+        nextGeneration = new Population(population.size());
+        random = new SplittableRandom();
+        threads = 1;
         maxGen = 2000;
         k = 5;
         elitismValue = 3;
@@ -44,10 +101,20 @@ public class GeneticAlgorithm {
         forceUniqueness(forceUniqueness);
         crossoverType = CrossoverType.UNIFORM_ORDER;
         mutationType = MutationType.INSERTION;
+        selectionType = SelectionType.TOURNAMENT;
+        selectionPressure = 1.5;
+        localSearchType = LocalSearchType.TWO_OPT;
+        localSearchRate = 0;
+        localSearchMaxMoves = Integer.MAX_VALUE;
+        localSearchTimeLimit = Long.MAX_VALUE;
         forceUniqueness = true;
         finished = false;
-        averageDistanceOfEachGeneration = new ArrayList<>();
-        bestDistanceOfEachGeneration = new ArrayList<>();
+        averageDistanceHistory = new History();
+        bestDistanceHistory = new History();
+        stopCriteria = new ArrayList<>();
+        generationListeners = new CopyOnWriteArrayList<>();
+        metricsSinks = new CopyOnWriteArrayList<>();
+        progress = new Progress();
     }
 
     public void setPopulation(Population population) {
@@ -55,6 +122,7 @@ public class GeneticAlgorithm {
             throw new IllegalArgumentException("Population cannot be null.");
         }
         this.population = population.deepCopy();
+        this.nextGeneration = new Population(population.size());
         averageDistanceOfFirstGeneration = population.getAverageDistance();
         bestDistanceOfFirstGeneration = population.getMostFit().getDistance();
     }
@@ -102,10 +170,95 @@ public class GeneticAlgorithm {
         this.mutationType = mutationType;
     }
 
+    public void setSelectionType(SelectionType selectionType) {
+        this.selectionType = selectionType;
+    }
+
+    public void setSelectionPressure(double selectionPressure) {
+        if (selectionPressure < 1 || selectionPressure > 2) {
+            throw new IllegalArgumentException("Selection pressure must be between 1 and 2 inclusive.");
+        }
+        this.selectionPressure = selectionPressure;
+    }
+
+    public void setLocalSearchType(LocalSearchType localSearchType) {
+        this.localSearchType = localSearchType;
+    }
+
+    public void setLocalSearchRate(double localSearchRate) {
+        if (localSearchRate < 0 || localSearchRate > 1) {
+            throw new IllegalArgumentException("Local search rate must be between 0 and 1 inclusive.");
+        }
+        this.localSearchRate = localSearchRate;
+    }
+
+    public void setLocalSearchMaxMoves(int localSearchMaxMoves) {
+        if (localSearchMaxMoves < 0) {
+            throw new IllegalArgumentException("Local search moves cannot be negative.");
+        }
+        this.localSearchMaxMoves = localSearchMaxMoves;
+    }
+
+    public void setLocalSearchTimeLimit(long localSearchTimeLimit) {
+        if (localSearchTimeLimit < 0) {
+            throw new IllegalArgumentException("Local search time limit cannot be negative.");
+        }
+        this.localSearchTimeLimit = localSearchTimeLimit;
+    }
+
     public void forceUniqueness(boolean forceUniqueness) {
         this.forceUniqueness = forceUniqueness;
     }
 
+    // Makes the run reproducible for a given seed and number of threads.
+    public void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    // The run stops after the first generation that meets any of its criteria, or after maxGen generations.
+    public void addStopCriterion(StopCriterion stopCriterion) {
+        if (stopCriterion == null) {
+            throw new IllegalArgumentException("Stop criterion cannot be null.");
+        }
+        stopCriteria.add(stopCriterion);
+    }
+
+    public void addGenerationListener(GenerationListener generationListener) {
+        if (generationListener == null) {
+            throw new IllegalArgumentException("Generation listener cannot be null.");
+        }
+        generationListeners.add(generationListener);
+    }
+
+    public void removeGenerationListener(GenerationListener generationListener) {
+        generationListeners.remove(generationListener);
+    }
+
+    // Measures every generation from now on, see GenerationMetrics. Sinks are added and removed between runs.
+    public void addMetricsSink(MetricsSink metricsSink) {
+        if (metricsSink == null) {
+            throw new IllegalArgumentException("Metrics sink cannot be null.");
+        }
+        metricsSinks.add(metricsSink);
+        if (metrics == null) {
+            metrics = new Metrics();
+        }
+    }
+
+    public void removeMetricsSink(MetricsSink metricsSink) {
+        metricsSinks.remove(metricsSink);
+        if (metricsSinks.isEmpty()) {
+            metrics = null;
+        }
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be greater than 0.");
+        }
+        this.threads = threads;
+    }
+
     public int getAverageDistanceOfFirstGeneration() {
         if (!finished) {
             throw new IllegalArgumentException("Genetic algorithm was never run.");
@@ -134,35 +287,41 @@ public class GeneticAlgorithm {
         return bestDistanceOfLastGeneration;
     }
 
-    public ArrayList<Integer> getAverageDistanceOfEachGeneration() {
+    public StopReason getStopReason() {
         if (!finished) {
             throw new IllegalArgumentException("Genetic algorithm was never run.");
         }
-        return averageDistanceOfEachGeneration;
+        return stopReason;
     }
 
-    public ArrayList<Integer> getBestDistanceOfEachGeneration() {
+    public long getEvaluations() {
+        return progress.getEvaluations();
+    }
+
+    // Bounded, see History: once there are more generations than buckets, each bucket covers several.
+    public History getAverageDistanceHistory() {
         if (!finished) {
             throw new IllegalArgumentException("Genetic algorithm was never run.");
         }
-        return bestDistanceOfEachGeneration;
+        return averageDistanceHistory;
     }
 
-    private void performElitism(Population nextGen) {
-        PriorityQueue<Chromosome> priorityQueue = new PriorityQueue<>();
-
-        for (Chromosome chromosome : population) {
-            priorityQueue.add(chromosome);
+    public History getBestDistanceHistory() {
+        if (!finished) {
+            throw new IllegalArgumentException("Genetic algorithm was never run.");
         }
+        return bestDistanceHistory;
+    }
 
-        for (int i = 0; i < elitismValue; i++) {
+    // Writes generation,best,average lines for every generation of the next runs to the file, null for none.
+    public void setHistoryFile(Path historyFile) {
+        this.historyFile = historyFile;
+    }
 
-            Chromosome chromosome = priorityQueue.poll();
+    private void performElitism(Population nextGen) {
+        for (Chromosome chromosome : population.getMostFit(elitismValue)) {
 
             if (random.nextDouble() <= mutationRate) {
-                if (chromosome == null) {
-                    throw new IllegalArgumentException("Chromosome is null.");
-                }
                 chromosome = performLocalSearch(chromosome);
             }
 
@@ -170,38 +329,45 @@ public class GeneticAlgorithm {
         }
     }
 
-    private Chromosome performLocalSearch(Chromosome chromosome) {
-
-        int bestDistance = chromosome.getDistance();
-        City[] array = chromosome.getCitiesArray();
-        City[] bestArray = array.clone();
-
-        for (int i = 0; i < array.length - 1; i++) {
-            for (int j = i + 1; j < array.length; j++) {
-                City[] temp = array.clone();
-                reverse(temp, i, j);
-
-                Chromosome c = new Chromosome(temp);
+    public enum LocalSearchType {
+        TWO_OPT,
+        OR_OPT,
+        THREE_OPT,
+        LIN_KERNIGHAN
+    }
 
-                int distance = c.getDistance();
-                if (distance < bestDistance) {
-                    bestDistance = distance;
-                    bestArray = c.getCitiesArray();
-                }
-            }
+    // Improve the Chromosome based on what type of local search is selected, within the budget.
+    private Chromosome performLocalSearch(Chromosome chromosome) {
+        long time = startTiming();
+        Budget budget = new Budget(localSearchMaxMoves, localSearchTimeLimit);
+        Chromosome improved;
+        if (localSearchType == LocalSearchType.OR_OPT) {
+            improved = OrOpt.improve(chromosome, budget);
+        } else if (localSearchType == LocalSearchType.THREE_OPT) {
+            improved = ThreeOpt.improve(chromosome, budget);
+        } else if (localSearchType == LocalSearchType.LIN_KERNIGHAN) {
+            improved = LinKernighan.improve(chromosome, budget);
+        } else { // Default is 2-opt.
+            improved = TwoOpt.improve(chromosome, budget);
         }
+        lap(Phase.LOCAL_SEARCH, time);
+        progress.evaluations.add(budget.getEvaluations());
+        return improved;
+    }
 
-        return new Chromosome(bestArray);
+    // Start of a measured step, 0 when nothing is measured.
+    private long startTiming() {
+        return metrics == null ? 0 : System.nanoTime();
     }
 
-    private static void reverse(City[] array, int i, int j) {
-        while (i < j) {
-            City temp = array[i];
-            array[i] = array[j];
-            array[j] = temp;
-            i++;
-            j--;
+    // Adds the time since start to the phase and returns the start of the next step.
+    private long lap(Phase phase, long start) {
+        if (metrics == null) {
+            return 0;
         }
+        long now = System.nanoTime();
+        metrics.phaseNanos[phase.ordinal()].add(now - start);
+        return now;
     }
 
     public enum MutationType {
@@ -211,7 +377,7 @@ public class GeneticAlgorithm {
     }
 
     // Mutate the Chromosome based on what type is selected.
-    private Chromosome mutate(Chromosome chromosome) {
+    private Chromosome mutate(Chromosome chromosome, RandomGenerator random) {
         if (mutationType == MutationType.INSERTION) {
             return Mutation.insertion(chromosome, random);
         } else if (mutationType == MutationType.RECIPROCAL_EXCHANGE) {
@@ -223,120 +389,462 @@ public class GeneticAlgorithm {
         }
     }
 
+    public enum SelectionType {
+        TOURNAMENT,
+        LINEAR_RANK,
+        STOCHASTIC_UNIVERSAL_SAMPLING
+    }
+
+    /**
+     * Fills parents with chromosomes of the current population based on what type of selection is selected.
+     * Stochastic universal sampling takes them in turn from the mating pool, from the position held by
+     * poolCursor, which is moved past them.
+     */
+    private void selectParents(RandomGenerator random, int[] poolCursor, Chromosome[] parents) {
+        if (selectionType == SelectionType.STOCHASTIC_UNIVERSAL_SAMPLING) {
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = population.getRanked(matingPool[poolCursor[0]++ % matingPool.length]);
+            }
+        } else if (selectionType == SelectionType.LINEAR_RANK) {
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = Selection.linearRankSelection(population, selectionPressure, random);
+            }
+        } else { // Default is tournament.
+            for (int i = 0; i < parents.length; i++) {
+                parents[i] = Selection.tournamentSelection(population, k, random);
+            }
+        }
+    }
+
     public enum CrossoverType {
         UNIFORM_ORDER,
         ONE_POINT,
-        TWO_POINT
+        TWO_POINT,
+        EDGE_RECOMBINATION,
+        EDGE_ASSEMBLY
     }
 
-    // Crossover the Chromosomes based on what type is selected.
-    private ArrayList<Chromosome> crossover(Chromosome p1, Chromosome p2) {
-        ArrayList<Chromosome> children;
+    // Crossover the Chromosomes based on what type is selected, the two children are written into children.
+    private void crossover(Chromosome p1, Chromosome p2, RandomGenerator random, Chromosome[] children) {
         if (crossoverType == CrossoverType.UNIFORM_ORDER) {
-            children = Crossover.uniformOrder(p1, p2, random);
+            Crossover.uniformOrder(p1, p2, random, children);
         } else if (crossoverType == CrossoverType.ONE_POINT) {
-            children = Crossover.onePointCrossover(p1, p2, random);
+            Crossover.onePointCrossover(p1, p2, random, children);
+        } else if (crossoverType == CrossoverType.EDGE_RECOMBINATION) {
+            Crossover.edgeRecombination(p1, p2, random, children);
+        } else if (crossoverType == CrossoverType.EDGE_ASSEMBLY) {
+            Crossover.edgeAssemblyCrossover(p1, p2, random, children);
         } else {
-            children = Crossover.twoPointCrossover(p1, p2, random);
+            Crossover.twoPointCrossover(p1, p2, random, children);
         }
-        return children;
     }
 
     /**
-     * @return The new generation is generated using genetic operators
+     * @return The new generation is generated using genetic operators. It is bred into the storage of the
+     * generation before the current one, the current one becomes the storage of the next call.
      */
     private Population createNextGeneration() {
 
-        Population nextGen = new Population(population.size());
+        Population nextGen = nextGeneration;
+        nextGen.clear();
 
+        long time = startTiming();
+        long localSearchNanos = metrics == null ? 0 : metrics.phaseNanos[Phase.LOCAL_SEARCH.ordinal()].sum();
         performElitism(nextGen); // Add the fittest chromosome of old generation to the new generation
-        HashSet<Chromosome> chromosomesAdded = new HashSet<>(); // Checking duplicates.
-        while (nextGen.size() < population.size() - 1) {
+        if (metrics != null) {
+            localSearchNanos = metrics.phaseNanos[Phase.LOCAL_SEARCH.ordinal()].sum() - localSearchNanos;
+            metrics.phaseNanos[Phase.ELITISM.ordinal()].add(System.nanoTime() - time - localSearchNanos);
+        }
+
+        // Checking duplicates, children identical to an elite are rejected too.
+        if (chromosomesAdded == null) {
+            chromosomesAdded = new ChromosomeSet(population.size());
+        }
+        chromosomesAdded.clear();
+        for (Chromosome elite : nextGen) {
+            chromosomesAdded.add(elite);
+        }
+
+        // The pool holds a parent for every member, each stream of breeding takes its parents from it in turn.
+        int[] poolCursor = {0};
+        if (selectionType == SelectionType.STOCHASTIC_UNIVERSAL_SAMPLING) {
+            if (matingPool == null || matingPool.length != population.size()) {
+                matingPool = new int[population.size()];
+            }
+            time = startTiming();
+            Selection.stochasticUniversalSampling(population, random, matingPool);
+            lap(Phase.SELECTION, time);
+        }
+
+        if (workers != null) {
+            breedInParallel(nextGen, poolCursor);
+        }
+
+        // A child that does not fit any more is dropped before the duplicate check, so it takes no place in it.
+        while (nextGen.size() < population.size()) {
+            Chromosome[] offspring = breed(random, poolCursor);
+
+            for (Chromosome child : offspring) {
+                child = nextGen.size() < population.size() ? admit(child, chromosomesAdded, random) : null;
+                if (child != null) {
+                    nextGen.add(child);
+                }
+            }
+        }
+
+        if (nextGen.size() != population.size()) {
+            throw new IllegalStateException("Next generation population must be full.");
+        }
+
+        nextGeneration = population;
+        return nextGen;
+    }
+
+    // Selects two parents and returns their two offspring after crossover and mutation.
+    private Chromosome[] breed(RandomGenerator random, int[] poolCursor) {
+        Chromosome[] offspring = new Chromosome[2];
+        long time = startTiming();
+        selectParents(random, poolCursor, offspring);
+        time = lap(Phase.SELECTION, time);
+
+        boolean doCrossover = (random.nextDouble() <= crossoverRate);
+        boolean doMutate1 = (random.nextDouble() <= mutationRate);
+        boolean doMutate2 = (random.nextDouble() <= mutationRate);
+
+        // Only new routes are evaluated, a child copied unchanged from its parent keeps the parent's distance.
+        progress.evaluations.add(doCrossover ? 2 : (doMutate1 ? 1 : 0) + (doMutate2 ? 1 : 0));
+
+        if (doCrossover) {
+            crossover(offspring[0], offspring[1], random, offspring);
+            time = lap(Phase.CROSSOVER, time);
+        }
 
-            Chromosome p1 = Selection.tournamentSelection(population, k, random);
-            Chromosome p2 = Selection.tournamentSelection(population, k, random);
+        if (doMutate1) offspring[0] = mutate(offspring[0], random);
+        if (doMutate2) offspring[1] = mutate(offspring[1], random);
+        if (doMutate1 || doMutate2) lap(Phase.MUTATION, time);
 
-            boolean doCrossover = (random.nextDouble() <= crossoverRate);
-            boolean doMutate1 = (random.nextDouble() <= mutationRate);
-            boolean doMutate2 = (random.nextDouble() <= mutationRate);
+        // Memetic step: offspring may be improved by local search before they join the next generation.
+        if (localSearchRate > 0 && random.nextDouble() < localSearchRate) offspring[0] = performLocalSearch(offspring[0]);
+        if (localSearchRate > 0 && random.nextDouble() < localSearchRate) offspring[1] = performLocalSearch(offspring[1]);
 
-            if (doCrossover) {
-                ArrayList<Chromosome> children = crossover(p1, p2);
-                p1 = children.get(0);
-                p2 = children.get(1);
+        return offspring;
+    }
+
+    /**
+     * Returns the child if it is not a duplicate of a chromosome already added, or null. Once as many
+     * duplicates as the population has members were rejected, the population has converged and breeding
+     * may hardly produce anything new, so duplicates are mutated until they are new, up to
+     * MAX_REMUTATIONS times, and then admitted anyway.
+     */
+    private Chromosome admit(Chromosome child, ChromosomeSet added, RandomGenerator random) {
+        if (!forceUniqueness || added.add(child)) {
+            return child;
+        }
+        if (metrics != null) {
+            metrics.duplicateRejections.increment();
+        }
+        if (added.getRejections() < population.size()) {
+            return null;
+        }
+        long time = startTiming();
+        Chromosome mutated = child;
+        for (int i = 0; i < MAX_REMUTATIONS; i++) {
+            mutated = mutate(mutated, random);
+            progress.evaluations.increment();
+            if (added.add(mutated)) {
+                break;
             }
+        }
+        lap(Phase.MUTATION, time);
+        return mutated;
+    }
 
-            if (doMutate1) p1 = mutate(p1);
-            if (doMutate2) p2 = mutate(p2);
+    /**
+     * Splits the offspring still missing from nextGen evenly between the workers. Every worker breeds
+     * with its own stream split from the main random and removes its own duplicates, the results are
+     * then merged in worker order so that a seed and thread count always give the same generation.
+     * Children rejected as duplicates while merging are bred again on the calling thread. Each worker
+     * takes its parents from the mating pool from where the quotas before its own end, poolCursor is left
+     * where they all end.
+     */
+    private void breedInParallel(Population nextGen, int[] poolCursor) {
+        int missing = population.size() - nextGen.size();
+        List<Callable<ArrayList<Chromosome>>> tasks = new ArrayList<>();
+
+        if (workerChromosomesAdded == null || workerChromosomesAdded.length != threads) {
+            workerChromosomesAdded = new ChromosomeSet[threads];
+            for (int i = 0; i < threads; i++) {
+                workerChromosomesAdded[i] = new ChromosomeSet(population.size() / threads + 1);
+            }
+        }
 
-            if (forceUniqueness) {
-                if (!chromosomesAdded.contains(p1)) {
-                    chromosomesAdded.add(p1);
-                    nextGen.add(p1);
+        for (int i = 0; i < threads; i++) {
+            int quota = missing / threads + (i < missing % threads ? 1 : 0);
+            SplittableRandom workerRandom = random.split();
+            ChromosomeSet added = workerChromosomesAdded[i];
+            int[] workerPoolCursor = {poolCursor[0]};
+            poolCursor[0] += quota;
+            tasks.add(() -> {
+                long allocated = metrics != null ? metrics.threadAllocatedBytes() : -1;
+                ArrayList<Chromosome> offspring = breedOffspring(quota, added, workerRandom, workerPoolCursor);
+                if (metrics != null && allocated >= 0) {
+                    metrics.workerAllocatedBytes.add(metrics.threadAllocatedBytes() - allocated);
                 }
+                return offspring;
+            });
+        }
 
-                if (!chromosomesAdded.contains(p2)) {
-                    chromosomesAdded.add(p2);
-                    nextGen.add(p2);
+        try {
+            for (Future<ArrayList<Chromosome>> future : workers.invokeAll(tasks)) {
+                for (Chromosome child : future.get()) {
+                    if (!forceUniqueness || chromosomesAdded.add(child)) {
+                        nextGen.add(child);
+                    } else if (metrics != null) {
+                        metrics.duplicateRejections.increment();
+                    }
                 }
-            } else {
-                nextGen.add(p1);
-                nextGen.add(p2);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while breeding the next generation.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Breeding the next generation failed.", e.getCause());
         }
+    }
 
-        if (nextGen.size() != population.size()) {
-            nextGen.add(Selection.tournamentSelection(population, k, random));
+    private ArrayList<Chromosome> breedOffspring(int quota, ChromosomeSet added, RandomGenerator random,
+                                                 int[] poolCursor) {
+        ArrayList<Chromosome> offspring = new ArrayList<>(quota);
+        added.clear();
+
+        while (offspring.size() < quota) {
+            for (Chromosome child : breed(random, poolCursor)) {
+                child = offspring.size() < quota ? admit(child, added, random) : null;
+                if (child != null) {
+                    offspring.add(child);
+                }
+            }
         }
 
-        if (nextGen.size() != population.size()) {
-            throw new IllegalStateException("Next generation population must be full.");
+        return offspring;
+    }
+
+    // The workers live from start to finish, so an island model evolving in many short steps reuses them.
+    private void startWorkers() {
+        stopWorkers();      // Left by a run that failed.
+        if (threads > 1) {
+            workers = new ForkJoinPool(threads);
         }
+    }
 
-        return nextGen;
+    private void stopWorkers() {
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
     }
 
     public void run() {
-        mostFitLast = population.getMostFit();
-        for (int i = 0; i < maxGen; i++) {
-            population = createNextGeneration();
+        run(new AtomicBoolean());
+    }
 
-            mostFitLast = population.getMostFit();
-            averageDistanceOfEachGeneration.add(population.getAverageDistance());
-            bestDistanceOfEachGeneration.add(population.getMostFit().getDistance());
+    // Runs until a stop criterion ends the run or cancellation is set.
+    private void run(AtomicBoolean cancellation) {
+        start(cancellation);
+        try {
+            evolve(maxGen);
+        } finally {
+            closeHistoryFile();
+            stopWorkers();
         }
+        finish();
+    }
 
-        finished = true;
-        averageDistanceOfLastGeneration = population.getAverageDistance();
-        bestDistanceOfLastGeneration = population.getMostFit().getDistance();
+    // Runs on a background thread of its own, see SolverHandle.
+    public SolverHandle runAsync() {
+        return runAsync(command -> {
+            Thread thread = new Thread(command, "genetic-algorithm");
+            thread.setDaemon(true);
+            thread.start();
+        });
     }
 
-    public void run_VisualGA() {
-        ViewTSP win = new ViewTSP(population.getCities());
+    /**
+     * Runs on the executor, see SolverHandle. The genetic algorithm must not be run again before it is done.
+     * The handle cancels this run only, even once it has not started yet or is already done, and keeps the
+     * result and stop reason of this run when the genetic algorithm is run again.
+     */
+    public SolverHandle runAsync(Executor executor) {
+        AtomicBoolean cancellation = new AtomicBoolean();
+        AtomicReference<StopReason> stopReason = new AtomicReference<>();
+        CompletableFuture<Chromosome> result = CompletableFuture.supplyAsync(() -> {
+            run(cancellation);
+            stopReason.set(getStopReason());
+            return getMostFitLast();
+        }, executor);
+        return new SolverHandle(this, result, cancellation, stopReason);
+    }
+
+    // Asks the current run to stop after the generation being bred, from any thread. The stop reason is then
+    // CANCELLED. Does nothing when no run is active.
+    public void cancel() {
+        AtomicBoolean current = cancellation;
+        if (current != null) {
+            current.set(true);
+        }
+    }
+
+    // Generations bred so far by the current or last run.
+    public int getGeneration() {
+        return progress.getGeneration();
+    }
 
+    void start() {
+        start(new AtomicBoolean());
+    }
+
+    // Resets the progress seen by the stop criteria, before the first generation.
+    private void start(AtomicBoolean cancellation) {
+        this.cancellation = cancellation;
+        startWorkers();
         mostFitLast = population.getMostFit();
-        win.draw(mostFitLast);
-        for (int i = 0; i < maxGen; i++) {
+        stopReason = null;
+        progress.start(population);
+        if (historyFile != null) {
+            try {
+                historyWriter = Files.newBufferedWriter(historyFile, StandardCharsets.UTF_8);
+                historyWriter.write("generation,best,average\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + historyFile + ".", e);
+            }
+        }
+    }
+
+    // Runs the given number of generations, recording the history of each one, unless a stop criterion
+    // ends the run first. Returns whether the run may go on.
+    boolean evolve(int generations) {
+        for (int i = 0; i < generations && !isStopped(); i++) {
+            if (metrics != null) {
+                metrics.startGeneration(progress.getEvaluations());
+            }
             population = createNextGeneration();
+            if (metrics != null) {
+                metrics.finishBreeding();
+            }
+            recordGeneration();
+        }
+        return !isStopped();
+    }
+
+    boolean isStopped() {
+        return stopReason != null;
+    }
 
-            Chromosome mostFit = population.getMostFit();
-            if (!mostFit.equals(mostFitLast)) {
-                win.draw(mostFit);
+    private void recordGeneration() {
+        mostFitLast = population.getMostFit();
+        averageDistanceHistory.add(population.getAverageDistance());
+        bestDistanceHistory.add(mostFitLast.getDistance());
+
+        progress.recordGeneration(population);
+        if (historyWriter != null) {
+            try {
+                historyWriter.write(progress.getGeneration() + "," + mostFitLast.getDistance() + ","
+                        + population.getAverageDistance() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + historyFile + ".", e);
             }
-            mostFitLast = mostFit;
-            averageDistanceOfEachGeneration.add(population.getAverageDistance());
-            bestDistanceOfEachGeneration.add(population.getMostFit().getDistance());
         }
+        if (metrics != null) {
+            GenerationMetrics generationMetrics = metrics.toGenerationMetrics(progress.getGeneration(),
+                    progress.getEvaluations(), progress.getDiversity(), mostFitLast.getDistance(),
+                    population.getAverageDistance());
+            for (MetricsSink metricsSink : metricsSinks) {
+                metricsSink.record(generationMetrics);
+            }
+        }
+        if (!generationListeners.isEmpty()) {
+            GenerationEvent event = new GenerationEvent(progress.getGeneration(), mostFitLast,
+                    population.getAverageDistance(), progress.getEvaluations(), progress.getElapsedMillis());
+            for (GenerationListener generationListener : generationListeners) {
+                generationListener.generationCompleted(event);
+            }
+        }
+
+        StopReason reason = null;
+        for (StopCriterion stopCriterion : stopCriteria) {
+            reason = stopCriterion.check(progress);
+            if (reason != null) {
+                break;
+            }
+        }
+        AtomicBoolean current = cancellation;
+        if (reason == null && current != null && current.get()) {
+            reason = StopReason.CANCELLED;
+        }
+        stopReason = reason;
+    }
 
+    void finish() {
+        closeHistoryFile();
+        stopWorkers();
+        cancellation = null;
+        if (stopReason == null) {
+            stopReason = StopReason.MAX_GENERATIONS;
+        }
         finished = true;
+        mostFitLast = population.getMostFit();
         averageDistanceOfLastGeneration = population.getAverageDistance();
         bestDistanceOfLastGeneration = population.getMostFit().getDistance();
     }
 
+    private void closeHistoryFile() {
+        if (historyWriter != null) {
+            try {
+                historyWriter.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + historyFile + ".", e);
+            } finally {
+                historyWriter = null;
+            }
+        }
+    }
+
+    // The count fittest chromosomes of the current generation, sent to the other islands.
+    Chromosome[] getEmigrants(int count) {
+        return population.getMostFit(count);
+    }
+
+    // Migrants from other islands take the place of the least fit chromosomes.
+    void immigrate(Chromosome[] migrants) {
+        for (Chromosome migrant : migrants) {
+            population.replaceLeastFit(migrant);
+        }
+    }
+
+    // Runs while drawing the fittest route whenever it changes.
+    public void run_VisualGA() {
+        ViewTSP win = new ViewTSP(population.getCities());
+        Chromosome[] drawn = {population.getMostFit()};
+        win.draw(drawn[0]);
+
+        GenerationListener drawer = event -> {
+            if (!event.getMostFit().equals(drawn[0])) {
+                drawn[0] = event.getMostFit();
+                win.draw(drawn[0]);
+            }
+        };
+        addGenerationListener(drawer);
+        try {
+            run();
+        } finally {
+            removeGenerationListener(drawer);
+        }
+    }
+
     public void showGraphInWindow() {
-        ArrayList<ArrayList<Integer>> yValues = new ArrayList<>();
-        yValues.add(getAverageDistanceOfEachGeneration());
-        yValues.add(getBestDistanceOfEachGeneration());
+        ArrayList<History> yValues = new ArrayList<>();
+        yValues.add(getAverageDistanceHistory());
+        yValues.add(getBestDistanceHistory());
         ArrayList<String> legend = new ArrayList<>();
         legend.add("Average Evaluation of Entire Population");
         legend.add("Evaluation of Fittest Member");
@@ -349,15 +857,20 @@ public class GeneticAlgorithm {
 
     public void printProperties() {
         System.out.println("----------Genetic Algorithm Properties----------");
-        System.out.println("Number of Cities:   " + population.getMostFit().getCitiesArray().length);
+        System.out.println("Number of Cities:   " + population.getMostFit().size());
         System.out.println("Population Size:    " + population.size());
         System.out.println("Max. Generation:    " + maxGen);
+        System.out.println("Selection Type:     " + selectionType);
         System.out.println("k Value:            " + k);
         System.out.println("Elitism Value:      " + elitismValue);
         System.out.println("Crossover Type:     " + crossoverType);
         System.out.println("Crossover Rate:     " + (crossoverRate * 100) + "%");
         System.out.println("Mutation Type:      " + mutationType);
         System.out.println("Mutation Rate:      " + (mutationRate * 100) + "%");
+        System.out.println("Local Search Type:  " + localSearchType);
+        System.out.println("Local Search Rate:  " + (localSearchRate * 100) + "%");
+        System.out.println("Threads:            " + threads);
+        System.out.println("Stop Criteria:      " + stopCriteria);
     }
 
     public void printResults() {
@@ -374,6 +887,8 @@ public class GeneticAlgorithm {
                 getBestDistanceOfFirstGeneration());
         System.out.println("Best Distance of Last Generation:      " +
                 getBestDistanceOfLastGeneration());
+        System.out.println("Stop Reason:                           " + stopReason + " after " +
+                progress.getGeneration() + " generations");
         System.out.println("Best route: " + Arrays.toString(getMostFitLast().getCitiesArray()));
     }
 
@@ -383,15 +898,20 @@ public class GeneticAlgorithm {
         }
         StringBuilder results = new StringBuilder();
         results.append("----------Genetic Algorithm Properties----------").append("\n")
-                .append("Number of Cities:   " + population.getMostFit().getCitiesArray().length).append("\n")
+                .append("Number of Cities:   " + population.getMostFit().size()).append("\n")
                 .append("Population Size:    " + population.size()).append("\n")
                 .append("Max. Generation:    " + maxGen).append("\n")
+                .append("Selection Type:     " + selectionType).append("\n")
                 .append("k Value:            " + k).append("\n")
                 .append("Elitism Value:      " + elitismValue).append("\n")
                 .append("Crossover Type:     " + crossoverType).append("\n")
                 .append("Crossover Rate:     " + (crossoverRate * 100) + "%").append("\n")
                 .append("Mutation Type:      " + mutationType).append("\n")
-                .append("Mutation Rate:      " + (mutationRate * 100) + "%");
+                .append("Mutation Rate:      " + (mutationRate * 100) + "%").append("\n")
+                .append("Local Search Type:  " + localSearchType).append("\n")
+                .append("Local Search Rate:  " + (localSearchRate * 100) + "%").append("\n")
+                .append("Threads:            " + threads).append("\n")
+                .append("Stop Criteria:      " + stopCriteria);
 
         new ViewProperties(results);
     }
@@ -408,7 +928,9 @@ public class GeneticAlgorithm {
                 .append("Best Distance of First Generation:     " +
                         getBestDistanceOfFirstGeneration()).append("\n")
                 .append("Best Distance of Last Generation:      " +
-                        getBestDistanceOfLastGeneration()).append("\n");
+                        getBestDistanceOfLastGeneration()).append("\n")
+                .append("Stop Reason:                           " + stopReason + " after " +
+                        progress.getGeneration() + " generations").append("\n");
 
         StringBuilder resultsName = new StringBuilder();
         resultsName.append("Best route:\n");
@@ -417,4 +939,126 @@ public class GeneticAlgorithm {
         }
         new ViewResults(results, resultsName);
     }
-}
\ No newline at end of file
+
+    // Measurements of the generation being bred, added to by the breeding workers.
+    private static class Metrics {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+        private final LongAdder duplicateRejections = new LongAdder();
+        private final LongAdder workerAllocatedBytes = new LongAdder();
+        private long startTime;
+        private long wallNanos;
+        private long evaluationsAtStart;
+        private long allocatedAtStart;
+        private long allocatedBytes;
+
+        Metrics() {
+            for (int i = 0; i < phaseNanos.length; i++) {
+                phaseNanos[i] = new LongAdder();
+            }
+        }
+
+        // Bytes allocated so far by the current thread, -1 if not measured.
+        long threadAllocatedBytes() {
+            if (THREADS instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getCurrentThreadAllocatedBytes();
+            }
+            return -1;
+        }
+
+        void startGeneration(long evaluations) {
+            for (LongAdder adder : phaseNanos) {
+                adder.reset();
+            }
+            duplicateRejections.reset();
+            workerAllocatedBytes.reset();
+            evaluationsAtStart = evaluations;
+            allocatedAtStart = threadAllocatedBytes();
+            startTime = System.nanoTime();
+        }
+
+        void finishBreeding() {
+            wallNanos = System.nanoTime() - startTime;
+            long allocated = threadAllocatedBytes();
+            allocatedBytes = allocated < 0 ? -1 : allocated - allocatedAtStart + workerAllocatedBytes.sum();
+        }
+
+        GenerationMetrics toGenerationMetrics(int generation, long evaluations, double diversity,
+                                              int bestDistance, int averageDistance) {
+            long[] nanos = new long[phaseNanos.length];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = phaseNanos[i].sum();
+            }
+            return new GenerationMetrics(generation, wallNanos, nanos, evaluations - evaluationsAtStart,
+                    duplicateRejections.sum(), diversity, allocatedBytes, bestDistance, averageDistance);
+        }
+    }
+
+    // What the stop criteria see of the run. Diversity is computed only when a criterion asks for it.
+    private static class Progress implements RunProgress {
+        private final LongAdder evaluations = new LongAdder();     // Added to by the breeding workers.
+        private Population population;
+        private long startTime;
+        private volatile int generation;
+        private int bestDistance;
+        private int lastImprovement;        // Generation of the last new best distance.
+        private double diversity;
+        private int diversityGeneration = -1;
+
+        void start(Population population) {
+            this.population = population;
+            startTime = System.nanoTime();
+            evaluations.reset();
+            evaluations.add(population.size());
+            generation = 0;
+            bestDistance = population.getMostFit().getDistance();
+            lastImprovement = 0;
+            diversityGeneration = -1;
+        }
+
+        void recordGeneration(Population population) {
+            this.population = population;
+            generation++;
+            if (population.getMostFit().getDistance() < bestDistance) {
+                bestDistance = population.getMostFit().getDistance();
+                lastImprovement = generation;
+            }
+        }
+
+        @Override
+        public int getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public long getElapsedMillis() {
+            return (System.nanoTime() - startTime) / 1_000_000L;
+        }
+
+        @Override
+        public long getEvaluations() {
+            return evaluations.sum();
+        }
+
+        @Override
+        public int getBestDistance() {
+            return bestDistance;
+        }
+
+        @Override
+        public int getGenerationsWithoutImprovement() {
+            return generation - lastImprovement;
+        }
+
+        @Override
+        public double getDiversity() {
+            if (diversityGeneration != generation) {
+                diversity = population.getDiversity();
+                diversityGeneration = generation;
+            }
+            return diversity;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package genetic_algorithms_tsp.genetic_algorithm;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.History;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Island mode of the genetic algorithm. Every island is a GeneticAlgorithm with its own population and
+ * operator settings, evolving on its own thread. Every migrationInterval generations the islands stop
+ * and send copies of their fittest chromosomes to their neighbours in the topology, where they replace
+ * the least fit members. An island whose stop criteria end its run keeps its last population, still
+ * sending emigrants but no longer receiving any; the model stops once every island has stopped.
+ */
+public class IslandModel {
+    private final ArrayList<GeneticAlgorithm> islands;
+    private int maxGen;
+    private int migrationInterval;  // Generations between two migrations.
+    private int migrants;           // Chromosomes each island sends to each of its neighbours.
+    private Topology topology;
+    private boolean finished;
+    private final History averageDistanceHistory;
+    private final History bestDistanceHistory;
+    private Chromosome mostFitLast;
+
+    public enum Topology {
+        RING,               // Island i sends to island i + 1.
+        FULLY_CONNECTED     // Every island sends to every other island.
+    }
+
+    public IslandModel() {
+        islands = new ArrayList<>();
+        maxGen = 2000;
+        migrationInterval = 50;
+        migrants = 1;
+        topology = Topology.RING;
+        finished = false;
+        averageDistanceHistory = new History();
+        bestDistanceHistory = new History();
+    }
+
+    public void addIsland(GeneticAlgorithm island) {
+        if (island == null) {
+            throw new IllegalArgumentException("Island cannot be null.");
+        }
+        islands.add(island);
+    }
+
+    public void setMaxGen(int maxGen) {
+        if (maxGen < 0) {
+            throw new IllegalArgumentException("Max generation cannot be negative.");
+        }
+        this.maxGen = maxGen;
+    }
+
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Migration interval must be greater than 0.");
+        }
+        this.migrationInterval = migrationInterval;
+    }
+
+    public void setMigrants(int migrants) {
+        if (migrants < 0) {
+            throw new IllegalArgumentException("Migrants cannot be negative.");
+        }
+        this.migrants = migrants;
+    }
+
+    public void setTopology(Topology topology) {
+        this.topology = topology;
+    }
+
+    public int getNumberOfIslands() {
+        return islands.size();
+    }
+
+    // The history of a single island is available through its own getters once the run is finished.
+    public GeneticAlgorithm getIsland(int index) {
+        return islands.get(index);
+    }
+
+    public History getAverageDistanceHistory() {
+        if (!finished) {
+            throw new IllegalArgumentException("Island model was never run.");
+        }
+        return averageDistanceHistory;
+    }
+
+    // Best distance over all islands for each generation.
+    public History getBestDistanceHistory() {
+        if (!finished) {
+            throw new IllegalArgumentException("Island model was never run.");
+        }
+        return bestDistanceHistory;
+    }
+
+    public Chromosome getMostFitLast() {
+        return mostFitLast;
+    }
+
+    public void run() {
+        if (islands.isEmpty()) {
+            throw new IllegalStateException("Island model needs at least one island.");
+        }
+
+        EpochRecorder[] recorders = new EpochRecorder[islands.size()];
+        for (int i = 0; i < islands.size(); i++) {
+            recorders[i] = new EpochRecorder(Math.min(migrationInterval, maxGen));
+            islands.get(i).addGenerationListener(recorders[i]);
+            islands.get(i).start();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(islands.size());
+        try {
+            for (int generation = 0; generation < maxGen; generation += migrationInterval) {
+                int generations = Math.min(migrationInterval, maxGen - generation);
+                boolean running = evolveIslands(executor, generations);
+                recordHistory(recorders);
+                if (!running) {
+                    break;
+                }
+                if (generation + generations < maxGen) {
+                    migrate();
+                }
+            }
+        } finally {
+            executor.shutdown();
+            for (int i = 0; i < islands.size(); i++) {
+                islands.get(i).removeGenerationListener(recorders[i]);
+            }
+        }
+
+        for (GeneticAlgorithm island : islands) {
+            island.finish();
+            Chromosome mostFit = island.getMostFitLast();
+            if (mostFitLast == null || mostFit.getDistance() < mostFitLast.getDistance()) {
+                mostFitLast = mostFit;
+            }
+        }
+        finished = true;
+    }
+
+    // Returns whether any island may go on.
+    private boolean evolveIslands(ExecutorService executor, int generations) {
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (GeneticAlgorithm island : islands) {
+            if (!island.isStopped()) {
+                tasks.add(() -> island.evolve(generations));
+            }
+        }
+
+        try {
+            boolean running = false;
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                running |= future.get();
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evolving the islands.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Evolving an island failed.", e.getCause());
+        }
+    }
+
+    // All emigrants are chosen before any island receives migrants, so the order of the islands does not matter.
+    private void migrate() {
+        int size = islands.size();
+        Chromosome[][] emigrants = new Chromosome[size][];
+        for (int i = 0; i < size; i++) {
+            emigrants[i] = islands.get(i).getEmigrants(migrants);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (topology == Topology.RING) {
+                immigrate(islands.get((i + 1) % size), emigrants[i]);
+            } else {
+                for (int j = 0; j < size; j++) {
+                    if (i != j) {
+                        immigrate(islands.get(j), emigrants[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void immigrate(GeneticAlgorithm island, Chromosome[] migrants) {
+        if (!island.isStopped()) {
+            island.immigrate(migrants);
+        }
+    }
+
+    // Merges the generations bred by the islands since the last migration. An island that stopped early
+    // counts with its last generation in the generations after it.
+    private void recordHistory(EpochRecorder[] recorders) {
+        int generations = 0;
+        for (EpochRecorder recorder : recorders) {
+            generations = Math.max(generations, recorder.count);
+        }
+
+        for (int generation = 0; generation < generations; generation++) {
+            long averageDistance = 0;
+            int bestDistance = Integer.MAX_VALUE;
+            for (EpochRecorder recorder : recorders) {
+                int index = Math.min(generation, recorder.count - 1);
+                averageDistance += index < 0 ? recorder.lastAverageDistance : recorder.averageDistances[index];
+                bestDistance = Math.min(bestDistance, index < 0 ? recorder.lastBestDistance : recorder.bestDistances[index]);
+            }
+            averageDistanceHistory.add((int) (averageDistance / recorders.length));
+            bestDistanceHistory.add(bestDistance);
+        }
+
+        for (EpochRecorder recorder : recorders) {
+            recorder.reset();
+        }
+    }
+
+    // Distances of the generations an island bred since the last migration, so that the history of the
+    // model does not depend on the resolution of the histories of the islands.
+    private static class EpochRecorder implements GenerationListener {
+        private final int[] averageDistances;
+        private final int[] bestDistances;
+        private int count;
+        private int lastAverageDistance;
+        private int lastBestDistance;
+
+        EpochRecorder(int generations) {
+            averageDistances = new int[generations];
+            bestDistances = new int[generations];
+        }
+
+        @Override
+        public void generationCompleted(GenerationEvent event) {
+            averageDistances[count] = event.getAverageDistance();
+            bestDistances[count] = event.getBestDistance();
+            count++;
+        }
+
+        void reset() {
+            if (count > 0) {
+                lastAverageDistance = averageDistances[count - 1];
+                lastBestDistance = bestDistances[count - 1];
+            }
+            count = 0;
+        }
+    }
+
+    public void printResults() {
+        if (!finished) {
+            throw new IllegalArgumentException("Island model was never run.");
+        }
+
+        System.out.println("-------------Island Model Results---------------");
+        for (int i = 0; i < islands.size(); i++) {
+            System.out.println("Best Distance of Island " + i + ":          " +
+                    islands.get(i).getBestDistanceOfLastGeneration());
+        }
+        System.out.println("Best Distance of All Islands:        " + mostFitLast.getDistance());
+    }
+}
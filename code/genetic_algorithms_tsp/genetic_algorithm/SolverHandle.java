@@ -0,0 +1,81 @@
+package genetic_algorithms_tsp.genetic_algorithm;
+
+import genetic_algorithms_tsp.genetic_algorithm.stop_criteria.StopReason;
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Handle of a genetic algorithm running in the background, returned by GeneticAlgorithm.runAsync.
+ * The best route found so far can be read at any time, and cancelling stops the run cooperatively
+ * after the generation being bred: the result is then the best route found, with the stop reason CANCELLED.
+ * Cancelling belongs to the run of the handle: once that run is done it has no effect on later runs.
+ */
+public class SolverHandle {
+
+    private final GeneticAlgorithm geneticAlgorithm;
+    private final CompletableFuture<Chromosome> result;
+    private final AtomicBoolean cancellation;
+    private final AtomicReference<StopReason> stopReason;  // Set by the run before the result completes.
+
+    SolverHandle(GeneticAlgorithm geneticAlgorithm, CompletableFuture<Chromosome> result, AtomicBoolean cancellation,
+                 AtomicReference<StopReason> stopReason) {
+        this.geneticAlgorithm = geneticAlgorithm;
+        this.result = result;
+        this.cancellation = cancellation;
+        this.stopReason = stopReason;
+    }
+
+    // Fittest chromosome of the latest generation, or of the last one of the run once it is done.
+    public Chromosome getMostFit() {
+        return result.isDone() && !result.isCompletedExceptionally() ? result.join() : geneticAlgorithm.getMostFitLast();
+    }
+
+    // Generations bred so far by the genetic algorithm, those of this run until it is run again.
+    public int getGeneration() {
+        return geneticAlgorithm.getGeneration();
+    }
+
+    // Null until the run is done, or if it failed.
+    public StopReason getStopReason() {
+        return result.isDone() && !result.isCompletedExceptionally() ? stopReason.get() : null;
+    }
+
+    public void cancel() {
+        cancellation.set(true);
+    }
+
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    // Waits for the run to end and returns the fittest chromosome of its last generation.
+    public Chromosome get() throws InterruptedException, ExecutionException {
+        return result.get();
+    }
+
+    public Chromosome get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return result.get(timeout, unit);
+    }
+
+    /**
+     * Waits at most the timeout for the run to end, then returns the best chromosome found so far.
+     * The run goes on unless it is cancelled.
+     */
+    public Chromosome getMostFitWithin(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException {
+        try {
+            return result.get(timeout, unit);
+        } catch (TimeoutException e) {
+            return getMostFit();
+        }
+    }
+
+    public CompletableFuture<Chromosome> toCompletableFuture() {
+        return result;
+    }
+}
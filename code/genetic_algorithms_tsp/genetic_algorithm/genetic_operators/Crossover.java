@@ -1,244 +1,283 @@
 package genetic_algorithms_tsp.genetic_algorithm.genetic_operators;
 
 import genetic_algorithms_tsp.genetic_objects.Chromosome;
-import genetic_algorithms_tsp.genetic_objects.City;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
-public class Crossover {
-    public static ArrayList<Chromosome> uniformOrder (Chromosome p1, Chromosome p2, Random r) {
-
-        City[] parent1 = p1.getCitiesArray();
-        City[] parent2 = p2.getCitiesArray();
+import static genetic_algorithms_tsp.genetic_algorithm.genetic_operators.CrossoverScratch.add;
+import static genetic_algorithms_tsp.genetic_algorithm.genetic_operators.CrossoverScratch.contains;
 
-        City[] child1 = new City[parent1.length];
-        City[] child2 = new City[parent2.length];
+// Operators read the city ids of the parents and write their two children into children[0] and children[1].
+// All working memory comes from the CrossoverScratch of the thread, only the genomes of the children are allocated.
+// -1 marks a position of a child that is still empty.
+public class Crossover {
+    private static final int EMPTY = -1;
 
-        HashSet<City> citiesInChild1 = new HashSet<>();
-        HashSet<City> citiesInChild2 = new HashSet<>();
+    public static void uniformOrder (Chromosome p1, Chromosome p2, RandomGenerator r, Chromosome[] children) {
 
-        ArrayList<City> citiesNotInChild1 = new ArrayList<>();
-        ArrayList<City> citiesNotInChild2 = new ArrayList<>();
+        int totalCities = p1.size();
+        CrossoverScratch scratch = CrossoverScratch.get(totalCities);
+        scratch.clearBitsets();
+        long[] citiesInChild1 = scratch.citiesInChild1;
+        long[] citiesInChild2 = scratch.citiesInChild2;
+        int[] citiesNotInChild1 = scratch.citiesNotInChild1;
+        int[] citiesNotInChild2 = scratch.citiesNotInChild2;
+        int missing1 = 0;
+        int missing2 = 0;
 
-        ArrayList<Chromosome> children = new ArrayList<>();
+        int[] child1 = emptyChild(totalCities);
+        int[] child2 = emptyChild(totalCities);
 
-        int[] bitMask = generateBitMask(parent1.length, r);
+        long[] bitMask = scratch.bitMask;
+        generateBitMask(bitMask, r);
 
         // Inherit the cities of the same parent where the bit-mask is 1.
-        for (int i = 0; i < bitMask.length; i++) {
-            if (bitMask[i] == 1) {
-                child1[i] = parent1[i];
-                child2[i] = parent2[i];
-                citiesInChild1.add(parent1[i]);
-                citiesInChild2.add(parent2[i]);
+        for (int i = 0; i < totalCities; i++) {
+            if (contains(bitMask, i)) {
+                int city1 = p1.getCityId(i);
+                int city2 = p2.getCityId(i);
+                child1[i] = city1;
+                child2[i] = city2;
+                add(citiesInChild1, city1);
+                add(citiesInChild2, city2);
             }
         }
 
         // Get the cities of the opposite parent if the child does not already contain them.
-        for (int i = 0; i < child1.length; i++) {
-            if (child1[i] == null && !citiesInChild1.contains(parent2[i])) {
-                child1[i] = parent2[i];
-                citiesInChild1.add(parent2[i]);
-            } else if (child1[i] != null && !citiesInChild1.contains(parent2[i])) {
-                citiesNotInChild1.add(parent2[i]);
+        for (int i = 0; i < totalCities; i++) {
+            int city1 = p1.getCityId(i);
+            int city2 = p2.getCityId(i);
+            if (child1[i] == EMPTY && !contains(citiesInChild1, city2)) {
+                child1[i] = city2;
+                add(citiesInChild1, city2);
+            } else if (child1[i] != EMPTY && !contains(citiesInChild1, city2)) {
+                citiesNotInChild1[missing1++] = city2;
             }
-            if (child2[i] == null && !citiesInChild2.contains(parent1[i])) {
-                child2[i] = parent1[i];
-                citiesInChild2.add(parent1[i]);
-            } else if (child2[i] != null && !citiesInChild2.contains(parent1[i])) {
-                citiesNotInChild2.add(parent1[i]);
+            if (child2[i] == EMPTY && !contains(citiesInChild2, city1)) {
+                child2[i] = city1;
+                add(citiesInChild2, city1);
+            } else if (child2[i] != EMPTY && !contains(citiesInChild2, city1)) {
+                citiesNotInChild2[missing2++] = city1;
             }
         }
 
         // Fill in the blanks.
-        for (int i = 0; i < child1.length; i++) {
-            if (child1[i] == null) {
-                child1[i] = citiesNotInChild1.remove(0);
+        int next1 = 0;
+        int next2 = 0;
+        for (int i = 0; i < totalCities; i++) {
+            if (child1[i] == EMPTY) {
+                child1[i] = citiesNotInChild1[next1++];
             }
-            if (child2[i] == null) {
-                child2[i] = citiesNotInChild2.remove(0);
+            if (child2[i] == EMPTY) {
+                child2[i] = citiesNotInChild2[next2++];
             }
         }
 
-        if (!citiesNotInChild1.isEmpty() || !citiesNotInChild2.isEmpty()) {
+        if (next1 != missing1 || next2 != missing2) {
             throw new IllegalStateException("Lists should be empty.");
         }
 
-        Chromosome childOne = new Chromosome(child1);
-        Chromosome childTwo = new Chromosome(child2);
-        children.add(childOne);
-        children.add(childTwo);
-
-        return children;
+        DistanceMatrix distanceMatrix = p1.getDistanceMatrix();
+        children[0] = new Chromosome(child1, distanceMatrix);
+        children[1] = new Chromosome(child2, distanceMatrix);
     }
 
-    private static int[] generateBitMask (int size, Random random) {
-
-        int[] array = new int[size];
-
-        for (int i = 0; i < array.length; i++) {
-            array[i] = (random.nextInt(2) == 0) ? 0 : 1;
+    // One random word per 64 positions, every bit is 0 or 1 with equal probability.
+    private static void generateBitMask (long[] bitMask, RandomGenerator random) {
+        for (int i = 0; i < bitMask.length; i++) {
+            bitMask[i] = random.nextLong();
         }
-
-        return array;
     }
 
-    public static ArrayList<Chromosome> onePointCrossover (Chromosome p1, Chromosome p2, Random r) {
-        City[] parent1 = p1.getCitiesArray();
-        City[] parent2 = p2.getCitiesArray();
-
-        City[] child1 = new City[parent1.length];
-        City[] child2 = new City[parent2.length];
-
-        HashSet<City> citiesInChild1 = new HashSet<>();
-        HashSet<City> citiesInChild2 = new HashSet<>();
+    private static int[] emptyChild(int size) {
+        int[] child = new int[size];
+        Arrays.fill(child, EMPTY);
+        return child;
+    }
 
-        ArrayList<City> citiesNotInChild1 = new ArrayList<>();
-        ArrayList<City> citiesNotInChild2 = new ArrayList<>();
+    public static void onePointCrossover (Chromosome p1, Chromosome p2, RandomGenerator r, Chromosome[] children) {
+        int totalCities = p1.size();
+        CrossoverScratch scratch = CrossoverScratch.get(totalCities);
+        scratch.clearBitsets();
 
-        ArrayList<Chromosome> children = new ArrayList<>();
-        int totalCities = parent1.length;
+        int[] child1 = emptyChild(totalCities);
+        int[] child2 = emptyChild(totalCities);
 
         int randomPoint = r.nextInt(totalCities);
 
         // Inherit the cities up to the point.
-        for (int i = 0; i < randomPoint; i++) {
-            child1[i] = parent1[i];
-            child2[i] = parent2[i];
-            citiesInChild1.add(parent1[i]);
-            citiesInChild2.add(parent2[i]);
-        }
+        inherit(p1, child1, scratch.citiesInChild1, 0, randomPoint);
+        inherit(p2, child2, scratch.citiesInChild2, 0, randomPoint);
 
         // Get the cities of the opposite parent if the child does not already contain them.
-        for (int i = randomPoint; i < totalCities; i++) {
-            if (!citiesInChild1.contains(parent2[i])) {
-                citiesInChild1.add(parent2[i]);
-                child1[i] = parent2[i];
-            }
-            if (!citiesInChild2.contains(parent1[i])) {
-                citiesInChild2.add(parent1[i]);
-                child2[i] = parent1[i];
-            }
-        }
-
-        // Find all the cities that are still missing from each child.
-        for (int i = 0; i < totalCities; i++) {
-            if (!citiesInChild1.contains(parent2[i])) {
-                citiesNotInChild1.add(parent2[i]);
-            }
-            if (!citiesInChild2.contains(parent1[i])) {
-                citiesNotInChild2.add(parent1[i]);
-            }
-        }
-
-        // Find which spots are still empty in each child.
-        ArrayList<Integer> emptySpotsC1 = new ArrayList<>();
-        ArrayList<Integer> emptySpotsC2 = new ArrayList<>();
-        for (int i = 0; i < totalCities; i++) {
-            if (child1[i] == null) {
-                emptySpotsC1.add(i);
-            }
-            if (child2[i] == null) {
-                emptySpotsC2.add(i);
-            }
-        }
-
-        // Fill in the empty spots.
-        for (City city : citiesNotInChild1) {
-            child1[emptySpotsC1.remove(0)] = city;
-        }
-        for (City city : citiesNotInChild2) {
-            child2[emptySpotsC2.remove(0)] = city;
-        }
+        copyMissing(p2, child1, scratch.citiesInChild1, randomPoint, totalCities);
+        copyMissing(p1, child2, scratch.citiesInChild2, randomPoint, totalCities);
 
-        Chromosome childOne = new Chromosome(child1);
-        Chromosome childTwo = new Chromosome(child2);
-        children.add(childOne);
-        children.add(childTwo);
+        // Fill the empty spots with the cities that are still missing, in the order of the other parent.
+        fillEmptySpots(p2, child1, scratch.citiesInChild1);
+        fillEmptySpots(p1, child2, scratch.citiesInChild2);
 
-        return children;
+        DistanceMatrix distanceMatrix = p1.getDistanceMatrix();
+        children[0] = new Chromosome(child1, distanceMatrix);
+        children[1] = new Chromosome(child2, distanceMatrix);
     }
 
-    public static ArrayList<Chromosome> twoPointCrossover(Chromosome p1, Chromosome p2, Random r) {
-        City[] parent1 = p1.getCitiesArray();
-        City[] parent2 = p2.getCitiesArray();
-
-        City[] child1 = new City[parent1.length];
-        City[] child2 = new City[parent2.length];
-
-        HashSet<City> citiesInChild1 = new HashSet<>();
-        HashSet<City> citiesInChild2 = new HashSet<>();
+    public static void twoPointCrossover(Chromosome p1, Chromosome p2, RandomGenerator r, Chromosome[] children) {
+        int totalCities = p1.size();
+        CrossoverScratch scratch = CrossoverScratch.get(totalCities);
+        scratch.clearBitsets();
 
-        ArrayList<City> citiesNotInChild1 = new ArrayList<>();
-        ArrayList<City> citiesNotInChild2 = new ArrayList<>();
-
-        ArrayList<Chromosome> children = new ArrayList<>();
-        int totalCities = parent1.length;
+        int[] child1 = emptyChild(totalCities);
+        int[] child2 = emptyChild(totalCities);
 
         int firstPoint = r.nextInt(totalCities);
         int secondPoint = r.nextInt(totalCities - firstPoint) + firstPoint;
 
         // Inherit the cities before and after the points selected.
-        for (int i = 0; i < firstPoint; i++) {
-            child1[i] = parent1[i];
-            child2[i] = parent2[i];
-            citiesInChild1.add(parent1[i]);
-            citiesInChild2.add(parent2[i]);
-        }
-        for (int i = secondPoint; i < totalCities; i++) {
-            child1[i] = parent1[i];
-            child2[i] = parent2[i];
-            citiesInChild1.add(parent1[i]);
-            citiesInChild2.add(parent2[i]);
-        }
+        inherit(p1, child1, scratch.citiesInChild1, 0, firstPoint);
+        inherit(p2, child2, scratch.citiesInChild2, 0, firstPoint);
+        inherit(p1, child1, scratch.citiesInChild1, secondPoint, totalCities);
+        inherit(p2, child2, scratch.citiesInChild2, secondPoint, totalCities);
 
         // Get the cities of the opposite parent if the child does not already contain them.
-        for (int i = firstPoint; i < secondPoint; i++) {
-            if (!citiesInChild1.contains(parent2[i])) {
-                citiesInChild1.add(parent2[i]);
-                child1[i] = parent2[i];
+        copyMissing(p2, child1, scratch.citiesInChild1, firstPoint, secondPoint);
+        copyMissing(p1, child2, scratch.citiesInChild2, firstPoint, secondPoint);
+
+        // Fill the empty spots with the cities that are still missing, in the order of the other parent.
+        fillEmptySpots(p2, child1, scratch.citiesInChild1);
+        fillEmptySpots(p1, child2, scratch.citiesInChild2);
+
+        DistanceMatrix distanceMatrix = p1.getDistanceMatrix();
+        children[0] = new Chromosome(child1, distanceMatrix);
+        children[1] = new Chromosome(child2, distanceMatrix);
+    }
+
+    // Edge Assembly Crossover, each parent in turn is the base of one child.
+    public static void edgeAssemblyCrossover(Chromosome p1, Chromosome p2, RandomGenerator r, Chromosome[] children) {
+        EdgeAssembly edgeAssembly = CrossoverScratch.get(p1.size()).edgeAssembly;
+        children[0] = edgeAssembly.cross(p1, p2, r);
+        children[1] = edgeAssembly.cross(p2, p1, r);
+    }
+
+    /**
+     * Edge Recombination Crossover. The edge table holds the neighbors of every city in either parent.
+     * Starting from a random city, the child always moves to the neighbor in the table that has the fewest
+     * unvisited neighbors left, and to a random unvisited city when the current city has none.
+     */
+    public static void edgeRecombination(Chromosome p1, Chromosome p2, RandomGenerator r, Chromosome[] children) {
+        int totalCities = p1.size();
+        CrossoverScratch scratch = CrossoverScratch.get(totalCities);
+        int[] edgeTable = scratch.edgeTable;
+        int[] edgeCount = scratch.edgeCount;
+        int[] unvisited = scratch.unvisited;
+        int[] unvisitedIndex = scratch.unvisitedIndex;
+
+        for (int c = 0; c < 2; c++) {
+            Arrays.fill(edgeCount, 0);
+            fillEdgeTable(p1, edgeTable, edgeCount);
+            fillEdgeTable(p2, edgeTable, edgeCount);
+            for (int i = 0; i < totalCities; i++) {
+                unvisited[i] = i;
+                unvisitedIndex[i] = i;
             }
-            if (!citiesInChild2.contains(parent1[i])) {
-                citiesInChild2.add(parent1[i]);
-                child2[i] = parent1[i];
+            int unvisitedCount = totalCities;
+
+            int[] child = new int[totalCities];
+            int city = r.nextInt(totalCities);
+            for (int i = 0; i < totalCities; i++) {
+                child[i] = city;
+
+                // Mark the city as visited.
+                int last = unvisited[--unvisitedCount];
+                unvisited[unvisitedIndex[city]] = last;
+                unvisitedIndex[last] = unvisitedIndex[city];
+                for (int e = 0; e < edgeCount[city]; e++) {
+                    removeEdge(edgeTable, edgeCount, edgeTable[4 * city + e], city);
+                }
+
+                if (unvisitedCount == 0) {
+                    break;
+                }
+
+                int next = -1;
+                int ties = 0;
+                for (int e = 0; e < edgeCount[city]; e++) {
+                    int neighbor = edgeTable[4 * city + e];
+                    if (next == -1 || edgeCount[neighbor] < edgeCount[next]) {
+                        next = neighbor;
+                        ties = 1;
+                    } else if (edgeCount[neighbor] == edgeCount[next] && r.nextInt(++ties) == 0) {
+                        next = neighbor;
+                    }
+                }
+                city = (next == -1) ? unvisited[r.nextInt(unvisitedCount)] : next;
             }
+
+            children[c] = new Chromosome(child, p1.getDistanceMatrix());
         }
+    }
 
-        // Find all the cities that are still missing from each child.
+    // Adds the two neighbors of every city in the parent to the edge table, without duplicates.
+    private static void fillEdgeTable(Chromosome parent, int[] edgeTable, int[] edgeCount) {
+        int totalCities = parent.size();
         for (int i = 0; i < totalCities; i++) {
-            if (!citiesInChild1.contains(parent2[i])) {
-                citiesNotInChild1.add(parent2[i]);
-            }
-            if (!citiesInChild2.contains(parent1[i])) {
-                citiesNotInChild2.add(parent1[i]);
-            }
+            int city = parent.getCityId(i);
+            addEdge(edgeTable, edgeCount, city, parent.getCityId(i == 0 ? totalCities - 1 : i - 1));
+            addEdge(edgeTable, edgeCount, city, parent.getCityId(i == totalCities - 1 ? 0 : i + 1));
         }
+    }
 
-        // Find which spots are still empty in each child.
-        ArrayList<Integer> emptySpotsC1 = new ArrayList<>();
-        ArrayList<Integer> emptySpotsC2 = new ArrayList<>();
-        for (int i = 0; i < totalCities; i++) {
-            if (child1[i] == null) {
-                emptySpotsC1.add(i);
-            }
-            if (child2[i] == null) {
-                emptySpotsC2.add(i);
+    private static void addEdge(int[] edgeTable, int[] edgeCount, int city, int neighbor) {
+        for (int e = 0; e < edgeCount[city]; e++) {
+            if (edgeTable[4 * city + e] == neighbor) {
+                return;
             }
         }
+        edgeTable[4 * city + edgeCount[city]++] = neighbor;
+    }
 
-        // Fill in the empty spots.
-        for (City city : citiesNotInChild1) {
-            child1[emptySpotsC1.remove(0)] = city;
+    private static void removeEdge(int[] edgeTable, int[] edgeCount, int city, int neighbor) {
+        for (int e = 0; e < edgeCount[city]; e++) {
+            if (edgeTable[4 * city + e] == neighbor) {
+                edgeTable[4 * city + e] = edgeTable[4 * city + --edgeCount[city]];
+                return;
+            }
         }
-        for (City city : citiesNotInChild2) {
-            child2[emptySpotsC2.remove(0)] = city;
+    }
+
+    // Copies the cities of the parent between from (inclusive) and to (exclusive) to the same positions of the child.
+    private static void inherit(Chromosome parent, int[] child, long[] citiesInChild, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int city = parent.getCityId(i);
+            child[i] = city;
+            add(citiesInChild, city);
         }
+    }
 
-        Chromosome childOne = new Chromosome(child1);
-        Chromosome childTwo = new Chromosome(child2);
-        children.add(childOne);
-        children.add(childTwo);
+    // Copies the cities of the donor between from (inclusive) and to (exclusive) the child does not contain yet.
+    private static void copyMissing(Chromosome donor, int[] child, long[] citiesInChild, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int city = donor.getCityId(i);
+            if (!contains(citiesInChild, city)) {
+                add(citiesInChild, city);
+                child[i] = city;
+            }
+        }
+    }
 
-        return children;
+    // The cursor emptySpot only moves forward, so the whole fill is a single pass over the child.
+    private static void fillEmptySpots(Chromosome donor, int[] child, long[] citiesInChild) {
+        int emptySpot = 0;
+        for (int i = 0; i < child.length; i++) {
+            int city = donor.getCityId(i);
+            if (!contains(citiesInChild, city)) {
+                while (child[emptySpot] != EMPTY) {
+                    emptySpot++;
+                }
+                child[emptySpot] = city;
+            }
+        }
     }
 }
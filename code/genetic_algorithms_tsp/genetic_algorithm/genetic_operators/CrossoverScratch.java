@@ -0,0 +1,58 @@
+package genetic_algorithms_tsp.genetic_algorithm.genetic_operators;
+
+import java.util.Arrays;
+
+// Working memory of the crossover operators, one per thread and reused by every call on that thread,
+// so that a crossover allocates nothing but the genomes of the children.
+class CrossoverScratch {
+    private static final ThreadLocal<CrossoverScratch> SCRATCH = ThreadLocal.withInitial(CrossoverScratch::new);
+
+    int size = -1;
+    long[] citiesInChild1;      // Bitsets indexed by city id.
+    long[] citiesInChild2;
+    long[] bitMask;             // Uniform Order: bit i set means position i is inherited from the same parent.
+    int[] citiesNotInChild1;    // Cities still missing from each child, in the order they are filled in.
+    int[] citiesNotInChild2;
+    int[] edgeTable;            // Edge Recombination: up to four neighbors of every city.
+    int[] edgeCount;
+    int[] unvisited;
+    int[] unvisitedIndex;
+    EdgeAssembly edgeAssembly;
+
+    // Scratch of the current thread, sized for routes of the given number of cities.
+    static CrossoverScratch get(int size) {
+        CrossoverScratch scratch = SCRATCH.get();
+        if (scratch.size != size) {
+            scratch.resize(size);
+        }
+        return scratch;
+    }
+
+    private void resize(int size) {
+        this.size = size;
+        int words = (size + 63) >>> 6;
+        citiesInChild1 = new long[words];
+        citiesInChild2 = new long[words];
+        bitMask = new long[words];
+        citiesNotInChild1 = new int[size];
+        citiesNotInChild2 = new int[size];
+        edgeTable = new int[4 * size];
+        edgeCount = new int[size];
+        unvisited = new int[size];
+        unvisitedIndex = new int[size];
+        edgeAssembly = new EdgeAssembly(size);
+    }
+
+    void clearBitsets() {
+        Arrays.fill(citiesInChild1, 0L);
+        Arrays.fill(citiesInChild2, 0L);
+    }
+
+    static boolean contains(long[] bitset, int city) {
+        return (bitset[city >>> 6] & (1L << city)) != 0;
+    }
+
+    static void add(long[] bitset, int city) {
+        bitset[city >>> 6] |= 1L << city;
+    }
+}
@@ -0,0 +1,372 @@
+package genetic_algorithms_tsp.genetic_algorithm.genetic_operators;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Edge Assembly Crossover (EAX) with a single AB-cycle as E-set.
+ * The edges that are in only one of the parents A and B are split into AB-cycles, cycles that alternate
+ * between edges of A and edges of B. One of them is chosen at random and applied to A: its A edges are
+ * removed and its B edges added. This may split the route into subtours, which are then joined
+ * greedily, smallest first, by the cheapest exchange of two edges towards a nearby city.
+ * The child keeps almost all of its edges from the parents.
+ * An instance holds the working arrays for routes of one size and is reused for many crossovers.
+ */
+class EdgeAssembly {
+    private static final int NONE = -1;
+
+    private final int size;
+    private DistanceMatrix distanceMatrix;
+    private final int[] linkA;      // The two neighbors of every city in A, then in B, then in the child.
+    private final int[] linkB;
+    private final int[] link;
+    private final int[] remaining;  // Edges of each city that differ between A and B and are not in an AB-cycle yet.
+    private final int[] remainingCount;
+    private final int[] path;       // Cities of the alternating walk, the cycles are cut out of it.
+    private final int[] evenPosition;
+    private final int[] oddPosition;
+    private final int[] cycle;      // Cities of the chosen AB-cycle, A edge first.
+    private int cycleLength;
+    private final int[] subtour;    // Subtour id of every city of the child.
+    private final int[] subtourSize;
+    private long hash;              // Route hash of the child, updated with every edge removed or added.
+
+    EdgeAssembly(int size) {
+        this.size = size;
+        linkA = new int[2 * size];
+        linkB = new int[2 * size];
+        link = new int[2 * size];
+        remaining = new int[4 * size];
+        remainingCount = new int[2 * size];
+        path = new int[4 * size + 1];
+        evenPosition = new int[size];
+        oddPosition = new int[size];
+        cycle = new int[2 * size + 1];
+        subtour = new int[size];
+        subtourSize = new int[size];
+    }
+
+    // Child that inherits most of the edges of a and the edges of one AB-cycle from b.
+    Chromosome cross(Chromosome a, Chromosome b, RandomGenerator random) {
+        distanceMatrix = a.getDistanceMatrix();
+        setLinks(a, linkA);
+        setLinks(b, linkB);
+
+        if (!chooseRandomABCycle(random)) {
+            return a; // Both parents have the same edges.
+        }
+
+        System.arraycopy(linkA, 0, link, 0, link.length);
+        int distance = a.getDistance();
+        hash = a.getHash();
+
+        // Even edges of the cycle come from A and are removed, odd edges come from B and are added.
+        for (int i = 0; i < cycleLength; i += 2) {
+            int u = cycle[i];
+            int v = cycle[i + 1];
+            replaceLink(u, v, NONE);
+            replaceLink(v, u, NONE);
+            distance -= distanceMatrix.distance(u, v);
+            hash ^= Chromosome.edgeHash(u, v);
+        }
+        for (int i = 1; i < cycleLength; i += 2) {
+            int u = cycle[i];
+            int v = cycle[i + 1];
+            replaceLink(u, NONE, v);
+            replaceLink(v, NONE, u);
+            distance += distanceMatrix.distance(u, v);
+            hash ^= Chromosome.edgeHash(u, v);
+        }
+
+        distance += joinSubtours();
+        return new Chromosome(toTour(), distanceMatrix, distance, hash);
+    }
+
+    private void setLinks(Chromosome chromosome, int[] links) {
+        for (int i = 0; i < size; i++) {
+            int city = chromosome.getCityId(i);
+            links[2 * city] = chromosome.getCityId(i == 0 ? size - 1 : i - 1);
+            links[2 * city + 1] = chromosome.getCityId(i == size - 1 ? 0 : i + 1);
+        }
+    }
+
+    private static boolean isLinked(int[] links, int u, int v) {
+        return links[2 * u] == v || links[2 * u + 1] == v;
+    }
+
+    private void replaceLink(int city, int oldNeighbor, int newNeighbor) {
+        if (link[2 * city] == oldNeighbor) {
+            link[2 * city] = newNeighbor;
+        } else {
+            link[2 * city + 1] = newNeighbor;
+        }
+    }
+
+    /**
+     * Splits the edges found in only one parent into AB-cycles by an alternating random walk, and keeps
+     * one of the cycles uniformly at random (reservoir sampling) in cycle. Returns false if there are none.
+     */
+    private boolean chooseRandomABCycle(RandomGenerator random) {
+        // remaining holds for every city up to two A edges, then up to two B edges.
+        int start = NONE;
+        for (int city = 0; city < size; city++) {
+            int countA = 0;
+            int countB = 0;
+            for (int side = 0; side < 2; side++) {
+                int neighborA = linkA[2 * city + side];
+                if (!isLinked(linkB, city, neighborA)) {
+                    remaining[4 * city + countA++] = neighborA;
+                }
+                int neighborB = linkB[2 * city + side];
+                if (!isLinked(linkA, city, neighborB)) {
+                    remaining[4 * city + 2 + countB++] = neighborB;
+                }
+            }
+            remainingCount[2 * city] = countA;
+            remainingCount[2 * city + 1] = countB;
+            evenPosition[city] = NONE;
+            oddPosition[city] = NONE;
+            if (countA > 0 && start == NONE) {
+                start = city;
+            }
+        }
+
+        if (start == NONE) {
+            return false;
+        }
+
+        int cyclesFound = 0;
+        int length = 0;     // Number of cities on the path; edge i goes from path[i] to path[i + 1].
+
+        while (true) {
+            if (length == 0) {
+                start = nextStart(start);
+                if (start == NONE) {
+                    break;
+                }
+                path[0] = start;
+                evenPosition[start] = 0;
+                length = 1;
+            }
+
+            // Edges at even positions of the path are A edges, at odd positions B edges.
+            int position = length - 1;
+            int u = path[position];
+            int type = position % 2;
+            int v = takeRemainingEdge(u, type, random);
+            path[length] = v;
+
+            // The walk closes an AB-cycle when v was reached before at a position of the same parity.
+            int[] positions = (length % 2 == 0) ? evenPosition : oddPosition;
+            int j = positions[v];
+            if (j == NONE) {
+                positions[v] = length;
+                length++;
+                continue;
+            }
+
+            cyclesFound++;
+            if (random.nextInt(cyclesFound) == 0) {
+                // Rotate the cycle so that it starts with an A edge.
+                int cycleSize = length - j;
+                int shift = (j % 2 == 0) ? 0 : 1;
+                for (int i = 0; i <= cycleSize; i++) {
+                    cycle[i] = path[j + (i + shift) % cycleSize];
+                }
+                cycleLength = cycleSize;
+            }
+
+            // Cut the cycle out of the path, the walk goes on from path[j].
+            for (int i = j + 1; i < length; i++) {
+                int city = path[i];
+                if (i % 2 == 0) {
+                    evenPosition[city] = NONE;
+                } else {
+                    oddPosition[city] = NONE;
+                }
+            }
+            length = j + 1;
+            if (length == 1 && remainingCount[2 * path[0]] == 0) {
+                evenPosition[path[0]] = NONE;
+                length = 0;
+            }
+        }
+
+        return cyclesFound > 0;
+    }
+
+    // Next city, from start on, that still has an A edge outside of all AB-cycles.
+    private int nextStart(int start) {
+        for (int city = start; city < size; city++) {
+            if (remainingCount[2 * city] > 0) {
+                return city;
+            }
+        }
+        return NONE;
+    }
+
+    // Removes a random remaining edge of the type (0 for A, 1 for B) at u from both of its cities.
+    private int takeRemainingEdge(int u, int type, RandomGenerator random) {
+        int count = remainingCount[2 * u + type];
+        int index = count == 1 ? 0 : random.nextInt(count);
+        int v = remaining[4 * u + 2 * type + index];
+        removeRemaining(u, type, index);
+
+        int countV = remainingCount[2 * v + type];
+        for (int i = 0; i < countV; i++) {
+            if (remaining[4 * v + 2 * type + i] == u) {
+                removeRemaining(v, type, i);
+                break;
+            }
+        }
+        return v;
+    }
+
+    private void removeRemaining(int city, int type, int index) {
+        int offset = 4 * city + 2 * type;
+        int last = --remainingCount[2 * city + type];
+        remaining[offset + index] = remaining[offset + last];
+    }
+
+    /**
+     * Joins the subtours of the child, always the smallest one into the subtour of a near city c,
+     * replacing an edge (u, u2) of the smallest subtour and an edge (c, c2) of the other one by
+     * (u, c) and (u2, c2). Returns the increase of the distance and updates the hash.
+     */
+    private int joinSubtours() {
+        int ids = labelSubtours();
+        int subtours = ids;
+        int increase = 0;
+        NeighborList neighborList = distanceMatrix.getNeighborList();
+
+        while (subtours > 1) {
+            int smallest = NONE;
+            for (int id = 0; id < ids; id++) {
+                if (subtourSize[id] > 0 && (smallest == NONE || subtourSize[id] < subtourSize[smallest])) {
+                    smallest = id;
+                }
+            }
+
+            int bestCost = Integer.MAX_VALUE;
+            int bestU = NONE, bestU2 = NONE, bestC = NONE, bestC2 = NONE;
+            int first = firstCityOf(smallest);
+            int u = first;
+            int previous = link[2 * u];
+
+            // Walk once around the smallest subtour.
+            do {
+                for (int rank = 0; rank < neighborList.size(); rank++) {
+                    int c = neighborList.get(u, rank);
+                    if (subtour[c] == smallest) {
+                        continue;
+                    }
+                    for (int side = 0; side < 4; side++) {
+                        int u2 = link[2 * u + (side & 1)];
+                        int c2 = link[2 * c + (side >> 1)];
+                        int cost = distanceMatrix.distance(u, c) + distanceMatrix.distance(u2, c2)
+                                - distanceMatrix.distance(u, u2) - distanceMatrix.distance(c, c2);
+                        if (cost < bestCost) {
+                            bestCost = cost;
+                            bestU = u;
+                            bestU2 = u2;
+                            bestC = c;
+                            bestC2 = c2;
+                        }
+                    }
+                }
+                int next = link[2 * u] == previous ? link[2 * u + 1] : link[2 * u];
+                previous = u;
+                u = next;
+            } while (u != first);
+
+            if (bestU == NONE) {
+                // No near city outside of the subtour, fall back to any city outside of it.
+                for (int c = 0; c < size && bestU == NONE; c++) {
+                    if (subtour[c] != smallest) {
+                        bestU = first;
+                        bestU2 = link[2 * first];
+                        bestC = c;
+                        bestC2 = link[2 * c];
+                        bestCost = distanceMatrix.distance(bestU, bestC) + distanceMatrix.distance(bestU2, bestC2)
+                                - distanceMatrix.distance(bestU, bestU2) - distanceMatrix.distance(bestC, bestC2);
+                    }
+                }
+            }
+
+            replaceLink(bestU, bestU2, bestC);
+            replaceLink(bestC, bestC2, bestU);
+            replaceLink(bestU2, bestU, bestC2);
+            replaceLink(bestC2, bestC, bestU2);
+            increase += bestCost;
+            hash ^= Chromosome.edgeHash(bestU, bestU2) ^ Chromosome.edgeHash(bestC, bestC2)
+                    ^ Chromosome.edgeHash(bestU, bestC) ^ Chromosome.edgeHash(bestU2, bestC2);
+
+            // Relabel the smallest subtour as part of the other one.
+            int target = subtour[bestC];
+            for (int city = 0; city < size; city++) {
+                if (subtour[city] == smallest) {
+                    subtour[city] = target;
+                }
+            }
+            subtourSize[target] += subtourSize[smallest];
+            subtourSize[smallest] = 0;
+            subtours--;
+        }
+
+        return increase;
+    }
+
+    // Gives every city the id of its subtour and returns the number of subtours.
+    private int labelSubtours() {
+        for (int city = 0; city < size; city++) {
+            subtour[city] = NONE;
+            subtourSize[city] = 0;
+        }
+
+        int subtours = 0;
+        for (int start = 0; start < size; start++) {
+            if (subtour[start] != NONE) {
+                continue;
+            }
+            int previous = link[2 * start];
+            int city = start;
+            do {
+                subtour[city] = subtours;
+                subtourSize[subtours]++;
+                int next = link[2 * city] == previous ? link[2 * city + 1] : link[2 * city];
+                previous = city;
+                city = next;
+            } while (city != start);
+            subtours++;
+        }
+        return subtours;
+    }
+
+    private int firstCityOf(int id) {
+        for (int city = 0; city < size; city++) {
+            if (subtour[city] == id) {
+                return city;
+            }
+        }
+        throw new IllegalStateException("Subtour is empty.");
+    }
+
+    private int[] toTour() {
+        int[] tour = new int[size];
+        int previous = link[0];
+        int city = 0;
+        for (int i = 0; i < size; i++) {
+            tour[i] = city;
+            int next = link[2 * city] == previous ? link[2 * city + 1] : link[2 * city];
+            previous = city;
+            city = next;
+        }
+        if (city != 0) {
+            throw new IllegalStateException("Child is not a single route.");
+        }
+        return tour;
+    }
+}
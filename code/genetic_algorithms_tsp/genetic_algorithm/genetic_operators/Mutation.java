@@ -1,43 +1,96 @@
 package genetic_algorithms_tsp.genetic_algorithm.genetic_operators;
 
 import genetic_algorithms_tsp.genetic_objects.Chromosome;
-import genetic_algorithms_tsp.genetic_objects.City;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
 
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
+// The mutated child gets its distance and hash from the parent and the edges the mutation changed,
+// the whole route is never measured again.
 public class Mutation {
 
-    public static Chromosome insertion(Chromosome chromosome, Random random) {
-        City[] cities = chromosome.getCitiesArray();
-        int randomIndex = random.nextInt(cities.length);
-        int randomDestination = random.nextInt(cities.length);
+    public static Chromosome insertion(Chromosome chromosome, RandomGenerator random) {
+        int[] tour = chromosome.getTour();
+        int l = tour.length;
+        int randomIndex = random.nextInt(l);
+        int randomDestination = random.nextInt(l);
 
-        City temp = cities[randomIndex];
+        // The city x is taken out from between p and q and put back between y and z.
+        int x = tour[randomIndex];
+        int p = tour[previous(randomIndex, l)];
+        int q = tour[next(randomIndex, l)];
+        int y = randomIndex < randomDestination ? tour[randomDestination] : tour[previous(randomDestination, l)];
+        int z = randomIndex < randomDestination ? tour[next(randomDestination, l)] : tour[randomDestination];
+
+        int temp = tour[randomIndex];
         if (randomIndex < randomDestination) {
-            for (int i = randomIndex; i < randomDestination; i++) {
-                cities[i] = cities[i + 1];
-            }
+            System.arraycopy(tour, randomIndex + 1, tour, randomIndex, randomDestination - randomIndex);
         } else {
-            for (int i = randomIndex; i > randomDestination; i--) {
-                cities[i] = cities[i - 1];
-            }
+            System.arraycopy(tour, randomDestination, tour, randomDestination + 1, randomIndex - randomDestination);
+        }
+        tour[randomDestination] = temp;
+
+        // Moving the first city to the end or the last to the front only rotates the route.
+        if (randomIndex == randomDestination || Math.abs(randomIndex - randomDestination) == l - 1) {
+            return chromosome.withMove(tour, 0, 0);
         }
-        cities[randomDestination] = temp;
-        return new Chromosome(cities);
+        return moveCity(chromosome, tour, p, x, q, y, z);
     }
 
-    public static Chromosome reciprocalExchange(Chromosome chromosome, Random random) {
-        City[] cities = chromosome.getCitiesArray();
-        int l = cities.length;
-        swap(cities, random.nextInt(l), random.nextInt(l));
-        return new Chromosome(cities);
+    public static Chromosome reciprocalExchange(Chromosome chromosome, RandomGenerator random) {
+        int[] tour = chromosome.getTour();
+        int l = tour.length;
+        int i = random.nextInt(l);
+        int j = random.nextInt(l);
+        if (i > j) {
+            int temp = i;
+            i = j;
+            j = temp;
+        }
+
+        // Exchanging two of three cities only reverses the route.
+        if (i == j || l <= 3) {
+            swap(tour, i, j);
+            return chromosome.withMove(tour, 0, 0);
+        }
+
+        // Exchanging neighbors moves the first one of them behind the second.
+        if (j == i + 1 || (i == 0 && j == l - 1)) {
+            int first = (j == i + 1) ? i : j;
+            int second = (j == i + 1) ? j : i;
+            int p = tour[previous(first, l)];
+            int x = tour[first];
+            int q = tour[second];
+            int z = tour[next(second, l)];
+            swap(tour, i, j);
+            return moveCity(chromosome, tour, p, x, q, q, z);
+        }
+
+        int a = tour[i];
+        int b = tour[j];
+        int beforeA = tour[previous(i, l)];
+        int afterA = tour[next(i, l)];
+        int beforeB = tour[previous(j, l)];
+        int afterB = tour[next(j, l)];
+        swap(tour, i, j);
+
+        DistanceMatrix dm = chromosome.getDistanceMatrix();
+        int distanceChange = dm.distance(beforeA, b) + dm.distance(b, afterA)
+                + dm.distance(beforeB, a) + dm.distance(a, afterB)
+                - dm.distance(beforeA, a) - dm.distance(a, afterA)
+                - dm.distance(beforeB, b) - dm.distance(b, afterB);
+        long hashChange = Chromosome.edgeHash(beforeA, b) ^ Chromosome.edgeHash(b, afterA)
+                ^ Chromosome.edgeHash(beforeB, a) ^ Chromosome.edgeHash(a, afterB)
+                ^ Chromosome.edgeHash(beforeA, a) ^ Chromosome.edgeHash(a, afterA)
+                ^ Chromosome.edgeHash(beforeB, b) ^ Chromosome.edgeHash(b, afterB);
+        return chromosome.withMove(tour, distanceChange, hashChange);
     }
 
-    public static Chromosome scrambleMutation(Chromosome chromosome, Random random) {
+    public static Chromosome scrambleMutation(Chromosome chromosome, RandomGenerator random) {
 
-        City[] cities = chromosome.getCitiesArray();
-        int randomIndexStart = random.nextInt(cities.length);
-        int randomIndexEnd = random.nextInt(cities.length);
+        int[] tour = chromosome.getTour();
+        int randomIndexStart = random.nextInt(tour.length);
+        int randomIndexEnd = random.nextInt(tour.length);
 
         if (randomIndexStart > randomIndexEnd) {
             int temp = randomIndexStart;
@@ -45,16 +98,65 @@ public class Mutation {
             randomIndexEnd = temp;
         }
 
+        // Only the edges that touch the segment can change.
+        int firstEdge = randomIndexStart - 1;
+        int lastEdge = randomIndexEnd;
+        if (randomIndexEnd - randomIndexStart + 1 == tour.length) {
+            firstEdge = 0;
+        }
+        DistanceMatrix dm = chromosome.getDistanceMatrix();
+        int lengthBefore = edgesLength(dm, tour, firstEdge, lastEdge);
+        long hashBefore = edgesHash(tour, firstEdge, lastEdge);
+
         for (int i = randomIndexStart; i <= randomIndexEnd; i++) {
             int r = random.nextInt(randomIndexEnd - i + 1);
-            swap(cities, i, i + r);
+            swap(tour, i, i + r);
         }
 
-        return new Chromosome(cities);
+        int distanceChange = edgesLength(dm, tour, firstEdge, lastEdge) - lengthBefore;
+        long hashChange = edgesHash(tour, firstEdge, lastEdge) ^ hashBefore;
+        return chromosome.withMove(tour, distanceChange, hashChange);
+    }
+
+    // Child where the edges (p, x), (x, q) and (y, z) of the parent were replaced by (p, q), (y, x) and (x, z).
+    private static Chromosome moveCity(Chromosome parent, int[] tour, int p, int x, int q, int y, int z) {
+        DistanceMatrix dm = parent.getDistanceMatrix();
+        int distanceChange = dm.distance(p, q) + dm.distance(y, x) + dm.distance(x, z)
+                - dm.distance(p, x) - dm.distance(x, q) - dm.distance(y, z);
+        long hashChange = Chromosome.edgeHash(p, q) ^ Chromosome.edgeHash(y, x) ^ Chromosome.edgeHash(x, z)
+                ^ Chromosome.edgeHash(p, x) ^ Chromosome.edgeHash(x, q) ^ Chromosome.edgeHash(y, z);
+        return parent.withMove(tour, distanceChange, hashChange);
+    }
+
+    // Length of the edges from firstEdge to lastEdge, edge k joining the positions k and k + 1 of the route.
+    private static int edgesLength(DistanceMatrix dm, int[] tour, int firstEdge, int lastEdge) {
+        int length = 0;
+        for (int k = firstEdge; k <= lastEdge; k++) {
+            int from = (k + tour.length) % tour.length;
+            length += dm.distance(tour[from], tour[next(from, tour.length)]);
+        }
+        return length;
+    }
+
+    private static long edgesHash(int[] tour, int firstEdge, int lastEdge) {
+        long hash = 0;
+        for (int k = firstEdge; k <= lastEdge; k++) {
+            int from = (k + tour.length) % tour.length;
+            hash ^= Chromosome.edgeHash(tour[from], tour[next(from, tour.length)]);
+        }
+        return hash;
+    }
+
+    private static int previous(int position, int length) {
+        return position == 0 ? length - 1 : position - 1;
+    }
+
+    private static int next(int position, int length) {
+        return position == length - 1 ? 0 : position + 1;
     }
 
-    private static void swap(City[] array, int i, int j) {
-        City temp = array[i];
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
         array[i] = array[j];
         array[j] = temp;
     }
@@ -3,47 +3,84 @@ package genetic_algorithms_tsp.genetic_algorithm.genetic_operators;
 import genetic_algorithms_tsp.genetic_objects.Chromosome;
 import genetic_algorithms_tsp.genetic_objects.Population;
 
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
+// Selections read the population through its indexed views, which are built once per generation,
+// so a pick costs no allocation.
 public class Selection {
 
     // Picks k Chromosomes at random and then return the best one.
-    public static Chromosome tournamentSelection(Population population, int k, Random random) {
+    public static Chromosome tournamentSelection(Population population, int k, RandomGenerator random) {
         if (k < 1) {
             throw new IllegalArgumentException("K must be greater than 0.");
         }
 
-        Chromosome[] populationAsArray = population.getChromosomes();
-        ArrayList<Chromosome> kChromosomes = getKChromosomes(populationAsArray, k, random);
-        return getBestChromosome(kChromosomes);
-    }
+        int size = population.size();
+        Chromosome bestC = population.get(random.nextInt(size));
 
-    // Returns k randomly selected Chromosomes.
-    private static ArrayList<Chromosome> getKChromosomes(Chromosome[] pop, int k, Random random) {
+        for (int j = 1; j < k; j++) {
+            Chromosome c = population.get(random.nextInt(size));
+            if (c.getDistance() < bestC.getDistance()) {
+                bestC = c;
+            }
+        }
 
-        ArrayList<Chromosome> kChromosomes = new ArrayList<>();
+        return bestC;
+    }
 
-        for (int j = 0; j < k; j++) {
-            Chromosome chromosome = pop[random.nextInt(pop.length)];
-            kChromosomes.add(chromosome);
+    /**
+     * Linear ranking: the member of rank i (0 being the fittest) out of n is picked with probability
+     * (pressure - 2 * (pressure - 1) * i / (n - 1)) / n, so the fittest is picked pressure times as often
+     * as the average member and the least fit 2 - pressure times. The rank is drawn by inverting the
+     * cumulative distribution, so a pick is O(1).
+     */
+    public static Chromosome linearRankSelection(Population population, double pressure, RandomGenerator random) {
+        if (pressure < 1 || pressure > 2) {
+            throw new IllegalArgumentException("Selection pressure must be between 1 and 2 inclusive.");
         }
 
-        return kChromosomes;
-    }
+        int size = population.size();
+        double u = random.nextDouble();
+        double x;
+        if (pressure == 1) {
+            x = u;
+        } else {
+            // Solve pressure * x - (pressure - 1) * x^2 = u for x in [0, 1).
+            x = (pressure - Math.sqrt(pressure * pressure - 4 * (pressure - 1) * u)) / (2 * (pressure - 1));
+        }
 
-    private static Chromosome getBestChromosome(ArrayList<Chromosome> arrayList) {
+        int rank = Math.min((int) (x * size), size - 1);
+        return population.getRanked(rank);
+    }
 
-        Chromosome bestC = null;
+    /**
+     * Stochastic universal sampling: fills pool with the ranks of pool.length members chosen by evenly
+     * spaced pointers over the cumulative fitness of the population, from a single random offset, so every
+     * member is in the pool within one of its expected number of times. The pool is then shuffled, so that
+     * parents taken from it in turn are paired at random. Built once per generation, in O(n + pool.length).
+     */
+    public static void stochasticUniversalSampling(Population population, RandomGenerator random, int[] pool) {
+        int size = population.size();
+        long total = population.getCumulativeFitness(size - 1);
+        double spacing = (double) total / pool.length;
+        double pointer = random.nextDouble() * spacing;
 
-        for (Chromosome c : arrayList) {
-            if (bestC == null) {
-                bestC = c;
-            } else if (c.getDistance() < bestC.getDistance()) {
-                bestC = c;
+        // Pointers grow, so the rank of each one is found from the rank of the one before.
+        int rank = 0;
+        for (int i = 0; i < pool.length; i++) {
+            long target = (long) pointer;
+            while (rank < size - 1 && population.getCumulativeFitness(rank) <= target) {
+                rank++;
             }
+            pool[i] = rank;
+            pointer += spacing;
         }
 
-        return bestC;
+        for (int i = pool.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = pool[i];
+            pool[i] = pool[j];
+            pool[j] = swap;
+        }
     }
 }
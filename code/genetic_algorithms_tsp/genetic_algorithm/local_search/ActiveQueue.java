@@ -0,0 +1,42 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+// FIFO of the cities whose don't-look bit is off; each city is in the queue at most once.
+class ActiveQueue {
+    private final int[] cities;
+    private final boolean[] active;
+    private int head;
+    private int count;
+
+    ActiveQueue(int size) {
+        cities = new int[size];
+        active = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            cities[i] = i;
+            active[i] = true;
+        }
+        count = size;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    void add(int city) {
+        if (!active[city]) {
+            active[city] = true;
+            int tail = head + count;
+            cities[tail >= cities.length ? tail - cities.length : tail] = city;
+            count++;
+        }
+    }
+
+    int poll() {
+        int city = cities[head];
+        active[city] = false;
+        if (++head == cities.length) {
+            head = 0;
+        }
+        count--;
+        return city;
+    }
+}
@@ -0,0 +1,84 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+// Tour stored as the order of the cities plus the position of every city in that order.
+// A reversal costs O(n) in the worst case, the shorter side of the route is always the one reversed.
+public class ArrayTour implements Tour {
+
+    private final int[] order;
+    private final int[] position;
+
+    public ArrayTour(int[] tour) {
+        this.order = tour.clone();
+        this.position = new int[tour.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+    }
+
+    @Override
+    public int size() {
+        return order.length;
+    }
+
+    @Override
+    public int next(int city) {
+        int i = position[city] + 1;
+        return order[i == order.length ? 0 : i];
+    }
+
+    @Override
+    public int prev(int city) {
+        int i = position[city] - 1;
+        return order[i < 0 ? order.length - 1 : i];
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        int pa = position[a];
+        int pb = position[b];
+        int pc = position[c];
+        if (pa <= pc) {
+            return pa <= pb && pb <= pc;
+        }
+        return pb >= pa || pb <= pc;
+    }
+
+    @Override
+    public void reverse(int from, int to) {
+        int n = order.length;
+        int i = position[from];
+        int j = position[to];
+        int length = j - i;
+        if (length < 0) {
+            length += n;
+        }
+        length++;
+
+        // Reversing the complement gives the same tour and touches fewer cities.
+        if (length * 2 > n) {
+            i = j + 1 == n ? 0 : j + 1;
+            j = position[from] == 0 ? n - 1 : position[from] - 1;
+            length = n - length;
+        }
+
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int ci = order[i];
+            int cj = order[j];
+            order[i] = cj;
+            position[cj] = i;
+            order[j] = ci;
+            position[ci] = j;
+            if (++i == n) {
+                i = 0;
+            }
+            if (--j < 0) {
+                j = n - 1;
+            }
+        }
+    }
+
+    @Override
+    public void copyTo(int[] destination) {
+        System.arraycopy(order, 0, destination, 0, order.length);
+    }
+}
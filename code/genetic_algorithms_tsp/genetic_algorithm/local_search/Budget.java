@@ -0,0 +1,46 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+// Limits one local search call to a number of applied moves and a wall-clock time, and counts the candidate
+// moves the search evaluated, applied or not.
+public class Budget {
+
+    private final int maxMoves;
+    private final long deadline;
+    private int moves;
+    private long evaluations;
+
+    public Budget(int maxMoves, long timeLimitMillis) {
+        if (maxMoves < 0 || timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Budget cannot be negative.");
+        }
+        this.maxMoves = maxMoves;
+        this.deadline = (timeLimitMillis >= Long.MAX_VALUE / 2_000_000L)
+                ? Long.MAX_VALUE
+                : System.nanoTime() + timeLimitMillis * 1_000_000L;
+    }
+
+    public static Budget unlimited() {
+        return new Budget(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public boolean isExhausted() {
+        return moves >= maxMoves || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0);
+    }
+
+    void moveApplied() {
+        moves++;
+    }
+
+    void movesEvaluated(int count) {
+        evaluations += count;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    // Candidate moves whose gain was computed, each one the evaluation of a neighboring route.
+    public long getEvaluations() {
+        return evaluations;
+    }
+}
@@ -0,0 +1,182 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+
+/**
+ * Lin-Kernighan style variable-depth search, built as a chain of 2-opt moves.
+ * Starting from an edge (t1, t2) the chain repeatedly adds an edge (t2, t3) to a nearest neighbor t3,
+ * removes the edge (t3, t4) that keeps the route a single cycle, and continues from (t1, t4) as long as
+ * the gain of the chain stays positive. The chain is cut back to the step with the best closed gain.
+ * The first levels try several alternatives for t3, deeper levels only the best one.
+ */
+public class LinKernighan {
+    private static final int[] BREADTH = {5, 3, 1};   // Alternatives tried at each level, the last applies below.
+    private static final int MAX_DEPTH = 50;           // Maximum number of 2-opt moves in one chain.
+
+    private final Tour tour;
+    private final DistanceMatrix distanceMatrix;
+    private final NeighborList neighborList;
+    private final int[] moves = new int[MAX_DEPTH * 4];    // t1, t2, t3, t4 of every move in the chain.
+    private final int[][] candidates;
+    private final int[][] values;
+    private int depth;
+    private int bestGain;
+    private int bestDepth;
+    private int evaluated;      // Candidates (t3, t4) valued since the last report to the budget.
+
+    private LinKernighan(Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList) {
+        this.tour = tour;
+        this.distanceMatrix = distanceMatrix;
+        this.neighborList = neighborList;
+        this.candidates = new int[MAX_DEPTH][2 * neighborList.size()];
+        this.values = new int[MAX_DEPTH][neighborList.size()];
+    }
+
+    public static Chromosome improve(Chromosome chromosome, Budget budget) {
+        DistanceMatrix distanceMatrix = chromosome.getDistanceMatrix();
+        Tour tour = Tour.of(chromosome.getTour());
+        int gain = improve(tour, distanceMatrix, distanceMatrix.getNeighborList(), budget);
+        return Tour.toChromosome(tour, chromosome, gain);
+    }
+
+    public static int improve(Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList, Budget budget) {
+        if (tour.size() < 8) {
+            return TwoOpt.improve(tour, distanceMatrix, neighborList, budget);
+        }
+
+        LinKernighan search = new LinKernighan(tour, distanceMatrix, neighborList);
+        ActiveQueue queue = new ActiveQueue(tour.size());
+        int totalGain = 0;
+
+        while (!queue.isEmpty() && !budget.isExhausted()) {
+            int t1 = queue.poll();
+            int gain = search.improveCity(t1, queue);
+            budget.movesEvaluated(search.evaluated);
+            search.evaluated = 0;
+            if (gain > 0) {
+                totalGain += gain;
+                budget.moveApplied();
+                queue.add(t1);
+            }
+        }
+
+        return totalGain;
+    }
+
+    // Runs one chain from each of the two edges at t1 and keeps the first one that gains.
+    private int improveCity(int t1, ActiveQueue queue) {
+        for (int direction = 0; direction < 2; direction++) {
+            int t2 = direction == 0 ? tour.next(t1) : tour.prev(t1);
+            depth = 0;
+            bestGain = 0;
+            bestDepth = 0;
+
+            step(0, t1, t2, distanceMatrix.distance(t1, t2));
+
+            if (bestGain > 0) {
+                undoTo(bestDepth);
+                for (int i = 0; i < bestDepth * 4; i++) {
+                    queue.add(moves[i]);
+                }
+                return bestGain;
+            }
+            undoTo(0);
+        }
+        return 0;
+    }
+
+    // Extends the chain from the open edge (t1, t2), gain being what the chain has gained so far with (t1, t2) removed.
+    // Stops trying alternatives as soon as some closed chain gained.
+    private void step(int level, int t1, int t2, int gain) {
+        if (depth == MAX_DEPTH) {
+            return;
+        }
+
+        // Candidates (t3, t4) sorted by the gain after removing (t3, t4), best first.
+        int[] candidates = this.candidates[depth];
+        int[] values = this.values[depth];
+        int count = 0;
+        boolean forward = tour.next(t1) == t2;
+
+        for (int rank = 0; rank < neighborList.size(); rank++) {
+            int t3 = neighborList.get(t2, rank);
+            int g1 = gain - distanceMatrix.distance(t2, t3);
+            if (g1 <= 0) {
+                break;
+            }
+            if (t3 == t1) {
+                continue;
+            }
+            int t4 = forward ? tour.prev(t3) : tour.next(t3);
+            if (t4 == t2 || wasAdded(t3, t4)) {
+                continue;
+            }
+
+            int value = g1 + distanceMatrix.distance(t3, t4);
+            evaluated++;
+            int i = count++;
+            while (i > 0 && values[i - 1] < value) {
+                values[i] = values[i - 1];
+                candidates[2 * i] = candidates[2 * i - 2];
+                candidates[2 * i + 1] = candidates[2 * i - 1];
+                i--;
+            }
+            values[i] = value;
+            candidates[2 * i] = t3;
+            candidates[2 * i + 1] = t4;
+        }
+
+        int breadth = Math.min(count, BREADTH[Math.min(level, BREADTH.length - 1)]);
+        for (int i = 0; i < breadth; i++) {
+            int t3 = candidates[2 * i];
+            int t4 = candidates[2 * i + 1];
+            int start = depth;
+            apply(t1, t2, t3, t4);
+
+            int closedGain = values[i] - distanceMatrix.distance(t4, t1);
+            if (closedGain > bestGain) {
+                bestGain = closedGain;
+                bestDepth = depth;
+            }
+
+            step(level + 1, t1, t4, values[i]);
+            if (bestGain > 0) {
+                return;
+            }
+            undoTo(start);
+        }
+    }
+
+    // Removes (t1, t2) and (t4, t3), adds (t2, t3) and closes the route with (t1, t4).
+    private void apply(int t1, int t2, int t3, int t4) {
+        tour.twoOptMove(t1, t2, t4, t3);
+        int i = depth * 4;
+        moves[i] = t1;
+        moves[i + 1] = t2;
+        moves[i + 2] = t3;
+        moves[i + 3] = t4;
+        depth++;
+    }
+
+    private void undoTo(int targetDepth) {
+        while (depth > targetDepth) {
+            depth--;
+            int i = depth * 4;
+            tour.twoOptMove(moves[i], moves[i + 3], moves[i + 1], moves[i + 2]);
+        }
+    }
+
+    // An edge added by the chain must not be removed again by it.
+    private boolean wasAdded(int a, int b) {
+        for (int i = 0; i < depth * 4; i += 4) {
+            int t2 = moves[i + 1];
+            int t3 = moves[i + 2];
+            if ((t2 == a && t3 == b) || (t2 == b && t3 == a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
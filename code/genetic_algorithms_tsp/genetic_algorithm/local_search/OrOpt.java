@@ -0,0 +1,158 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+
+/**
+ * Or-opt local search: a segment of up to three cities p [s1 .. s2] n is taken out of the route and
+ * inserted, as it is or reversed, between two neighboring cities x y next to one of the nearest
+ * neighbors of s1 or s2. 2-opt moves are tried first for every city, so the result is also 2-optimal.
+ */
+public class OrOpt {
+    private static final int MAX_SEGMENT_LENGTH = 3;
+
+    public static Chromosome improve(Chromosome chromosome, Budget budget) {
+        DistanceMatrix distanceMatrix = chromosome.getDistanceMatrix();
+        Tour tour = Tour.of(chromosome.getTour());
+        int gain = improve(tour, distanceMatrix, distanceMatrix.getNeighborList(), budget);
+        return Tour.toChromosome(tour, chromosome, gain);
+    }
+
+    public static int improve(Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList, Budget budget) {
+        ActiveQueue queue = new ActiveQueue(tour.size());
+        int[] segment = new int[MAX_SEGMENT_LENGTH];
+        int totalGain = 0;
+
+        while (!queue.isEmpty() && !budget.isExhausted()) {
+            int a = queue.poll();
+            int gain = TwoOpt.improveCity(a, tour, distanceMatrix, neighborList, queue, budget);
+            if (gain == 0 && tour.size() > MAX_SEGMENT_LENGTH + 4) {
+                gain = improveCity(a, tour, distanceMatrix, neighborList, queue, segment, budget);
+            }
+            if (gain > 0) {
+                totalGain += gain;
+                budget.moveApplied();
+                queue.add(a);
+            }
+        }
+
+        return totalGain;
+    }
+
+    // Applies the best segment relocation of a segment starting or ending at a.
+    private static int improveCity(int a, Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList,
+                                   ActiveQueue queue, int[] segment, Budget budget) {
+        int bestGain = 0;
+        int evaluated = 0;
+        int bestS1 = -1, bestS2 = -1, bestX = -1;
+        boolean bestReversed = false;
+
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+            for (int end = 0; end < 2; end++) {
+                if (length == 1 && end == 1) {
+                    continue;
+                }
+
+                // Collect the segment forward from s1, which is a itself or lies before a.
+                int s1 = a;
+                if (end == 1) {
+                    for (int i = 1; i < length; i++) {
+                        s1 = tour.prev(s1);
+                    }
+                }
+                int s2 = s1;
+                segment[0] = s1;
+                for (int i = 1; i < length; i++) {
+                    s2 = tour.next(s2);
+                    segment[i] = s2;
+                }
+
+                int p = tour.prev(s1);
+                int n = tour.next(s2);
+                int removeGain = distanceMatrix.distance(p, s1) + distanceMatrix.distance(s2, n)
+                        - distanceMatrix.distance(p, n);
+                if (removeGain <= 0) {
+                    continue;
+                }
+
+                for (int endpoint = 0; endpoint < 2; endpoint++) {
+                    int e = endpoint == 0 ? s1 : s2;
+                    if (endpoint == 1 && length == 1) {
+                        break;
+                    }
+
+                    for (int rank = 0; rank < neighborList.size(); rank++) {
+                        int c = neighborList.get(e, rank);
+                        if (removeGain - distanceMatrix.distance(e, c) <= 0) {
+                            break;
+                        }
+                        if (contains(segment, length, c)) {
+                            continue;
+                        }
+
+                        // Try the edge after c and the edge before c.
+                        for (int side = 0; side < 2; side++) {
+                            int x = side == 0 ? c : tour.prev(c);
+                            int y = tour.next(x);
+                            if (contains(segment, length, x) || contains(segment, length, y)) {
+                                continue;
+                            }
+
+                            int removedXY = distanceMatrix.distance(x, y);
+                            int keepCost = distanceMatrix.distance(x, s1) + distanceMatrix.distance(s2, y) - removedXY;
+                            int reverseCost = distanceMatrix.distance(x, s2) + distanceMatrix.distance(s1, y) - removedXY;
+                            boolean reversed = length == 1 || reverseCost < keepCost;
+                            int gain = removeGain - (reversed ? reverseCost : keepCost);
+                            evaluated++;
+
+                            if (gain > bestGain) {
+                                bestGain = gain;
+                                bestS1 = s1;
+                                bestS2 = s2;
+                                bestX = x;
+                                bestReversed = reversed;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        budget.movesEvaluated(evaluated);
+        if (bestGain > 0) {
+            int p = tour.prev(bestS1);
+            int n = tour.next(bestS2);
+            int y = tour.next(bestX);
+            move(tour, p, bestS1, bestS2, n, bestX, y, bestReversed);
+            queue.add(p);
+            queue.add(n);
+            queue.add(bestS1);
+            queue.add(bestS2);
+            queue.add(bestX);
+            queue.add(y);
+        }
+
+        return bestGain;
+    }
+
+    // Moves p [s1 .. s2] n ... x y  to  p n ... x [s2 .. s1] y, and restores the order of the segment if not reversed.
+    private static void move(Tour tour, int p, int s1, int s2, int n, int x, int y, boolean reversed) {
+        tour.twoOptMove(p, s1, x, y);       // p x .. n s2 .. s1 y
+        if (x != n) {
+            tour.twoOptMove(p, x, n, s2);   // p n .. x s2 .. s1 y
+        }
+        if (!reversed) {
+            tour.twoOptMove(x, s2, s1, y);  // p n .. x s1 .. s2 y
+        }
+    }
+
+    private static boolean contains(int[] segment, int length, int city) {
+        for (int i = 0; i < length; i++) {
+            if (segment[i] == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,107 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+
+/**
+ * 3-opt local search with the segment exchange move: a [b .. c] [d .. e] f becomes a [d .. e] [b .. c] f,
+ * replacing the edges (a, b), (c, d) and (e, f) by (a, d), (e, b) and (c, f). The move is searched
+ * sequentially, d among the nearest neighbors of a and e among the nearest neighbors of b, keeping
+ * the partial gain positive at each step. 2-opt moves are tried first for every city.
+ */
+public class ThreeOpt {
+
+    public static Chromosome improve(Chromosome chromosome, Budget budget) {
+        DistanceMatrix distanceMatrix = chromosome.getDistanceMatrix();
+        Tour tour = Tour.of(chromosome.getTour());
+        int gain = improve(tour, distanceMatrix, distanceMatrix.getNeighborList(), budget);
+        return Tour.toChromosome(tour, chromosome, gain);
+    }
+
+    public static int improve(Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList, Budget budget) {
+        ActiveQueue queue = new ActiveQueue(tour.size());
+        int totalGain = 0;
+
+        while (!queue.isEmpty() && !budget.isExhausted()) {
+            int a = queue.poll();
+            int gain = TwoOpt.improveCity(a, tour, distanceMatrix, neighborList, queue, budget);
+            if (gain == 0 && tour.size() > 5) {
+                gain = improveCity(a, tour, distanceMatrix, neighborList, queue, budget);
+            }
+            if (gain > 0) {
+                totalGain += gain;
+                budget.moveApplied();
+                queue.add(a);
+            }
+        }
+
+        return totalGain;
+    }
+
+    // Applies the best segment exchange that adds an edge between a and one of its neighbors.
+    private static int improveCity(int a, Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList,
+                                   ActiveQueue queue, Budget budget) {
+        int bestGain = 0;
+        int evaluated = 0;
+        int bestB = -1, bestC = -1, bestD = -1, bestE = -1, bestF = -1;
+
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? tour.next(a) : tour.prev(a);
+            int removedAB = distanceMatrix.distance(a, b);
+
+            for (int rankD = 0; rankD < neighborList.size(); rankD++) {
+                int d = neighborList.get(a, rankD);
+                int g1 = removedAB - distanceMatrix.distance(a, d);
+                if (g1 <= 0) {
+                    break;
+                }
+                if (d == b) {
+                    continue;
+                }
+                int c = forward ? tour.prev(d) : tour.next(d);
+                int g1Closed = g1 + distanceMatrix.distance(c, d);
+
+                for (int rankE = 0; rankE < neighborList.size(); rankE++) {
+                    int e = neighborList.get(b, rankE);
+                    int g2 = g1Closed - distanceMatrix.distance(b, e);
+                    if (g2 <= 0) {
+                        break;
+                    }
+
+                    // e must lie on the path from d back to a, a itself excluded.
+                    if (e == a || !(forward ? tour.between(d, e, a) : tour.between(a, e, d))) {
+                        continue;
+                    }
+                    int f = forward ? tour.next(e) : tour.prev(e);
+
+                    int gain = g2 + distanceMatrix.distance(e, f) - distanceMatrix.distance(c, f);
+                    evaluated++;
+                    if (gain > bestGain) {
+                        bestGain = gain;
+                        bestB = b;
+                        bestC = c;
+                        bestD = d;
+                        bestE = e;
+                        bestF = f;
+                    }
+                }
+            }
+        }
+
+        budget.movesEvaluated(evaluated);
+        if (bestGain > 0) {
+            tour.twoOptMove(a, bestB, bestE, bestF);        // a e .. d c .. b f
+            tour.twoOptMove(a, bestE, bestD, bestC);        // a d .. e c .. b f
+            tour.twoOptMove(bestE, bestC, bestB, bestF);    // a d .. e b .. c f
+            queue.add(bestB);
+            queue.add(bestC);
+            queue.add(bestD);
+            queue.add(bestE);
+            queue.add(bestF);
+        }
+
+        return bestGain;
+    }
+}
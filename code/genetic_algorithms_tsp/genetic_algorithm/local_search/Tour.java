@@ -0,0 +1,53 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+
+// A route that local search can query and modify in place by city id.
+public interface Tour {
+
+    // Size from which reversals of an ArrayTour, O(n), cost more than the overhead of a TwoLevelTour.
+    int TWO_LEVEL_SIZE = 5000;
+
+    // Tour of the route in the structure suited to its size.
+    static Tour of(int[] tour) {
+        return tour.length >= TWO_LEVEL_SIZE ? new TwoLevelTour(tour) : new ArrayTour(tour);
+    }
+
+    int size();
+
+    // City visited after the given city.
+    int next(int city);
+
+    // City visited before the given city.
+    int prev(int city);
+
+    // True if b is on the path going forward from a to c, both included.
+    boolean between(int a, int b, int c);
+
+    // Reverses the path going forward from city from to city to. Implementations may instead
+    // reverse the rest of the route, which gives the same set of edges.
+    void reverse(int from, int to);
+
+    // Writes the route, starting anywhere, into the given array.
+    void copyTo(int[] destination);
+
+    // Replaces the edges (a, b) and (c, d) by (a, c) and (b, d).
+    // b and d must either both follow or both precede a and c in the route.
+    default void twoOptMove(int a, int b, int c, int d) {
+        if (next(a) == b) {
+            reverse(b, c);      // a b ... c d  ->  a c ... b d
+        } else {
+            reverse(a, d);      // b a ... d c  ->  b d ... a c
+        }
+    }
+
+    // Chromosome of the improved route, or the original one if local search did not gain anything.
+    static Chromosome toChromosome(Tour tour, Chromosome original, int gain) {
+        if (gain == 0) {
+            return original;
+        }
+        int[] improved = new int[tour.size()];
+        tour.copyTo(improved);
+        return new Chromosome(improved, original.getDistanceMatrix(), original.getDistance() - gain);
+    }
+}
@@ -0,0 +1,335 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+/**
+ * Tour stored as a two-level doubly-linked list: the route is cut into about sqrt(n) segments of
+ * consecutive cities, which are linked in route order and carry a reversed bit, and the cities of
+ * every segment are linked in storage order and numbered along it. A reversal splits the segments at
+ * both ends of the path, moving the shorter part of each into its neighbor, then relinks the segments
+ * in between and flips their bits, or reverses the cities in place when the path lies in one segment.
+ * Both cost O(sqrt n), against O(n) for an ArrayTour, next, prev and between stay O(1).
+ * Segments that grow past four times their initial size are rebalanced by rebuilding the list, O(n).
+ */
+public class TwoLevelTour implements Tour {
+
+    private final int size;
+    private final int groupSize;        // Initial number of cities per segment.
+
+    // By city: neighbors in the storage order of its segment, its segment, and its number in that order.
+    // The links leaving a segment at either end are not kept up to date, the segment links are used instead.
+    private final int[] storedNext;
+    private final int[] storedPrev;
+    private final int[] segment;
+    private final int[] id;
+
+    // By segment: its first and last city in storage order, the neighboring segments in route order,
+    // its place in the route, and whether the route goes through it against the storage order.
+    private int[] first;
+    private int[] last;
+    private int[] segmentNext;
+    private int[] segmentPrev;
+    private int[] rank;
+    private boolean[] reversed;
+
+    private final int[] buffer;         // Cities or segments being moved.
+    private boolean unbalanced;         // A segment grew past four times the initial size.
+
+    public TwoLevelTour(int[] tour) {
+        this.size = tour.length;
+        this.groupSize = Math.max(2, (int) Math.sqrt(size));
+        this.storedNext = new int[size];
+        this.storedPrev = new int[size];
+        this.segment = new int[size];
+        this.id = new int[size];
+        this.buffer = new int[size];
+        build(tour);
+    }
+
+    // Cuts the route into segments of groupSize cities, the last one may be shorter.
+    private void build(int[] tour) {
+        int segments = (size + groupSize - 1) / groupSize;
+        first = new int[segments];
+        last = new int[segments];
+        segmentNext = new int[segments];
+        segmentPrev = new int[segments];
+        rank = new int[segments];
+        reversed = new boolean[segments];
+
+        for (int s = 0; s < segments; s++) {
+            int start = s * groupSize;
+            int end = Math.min(size, start + groupSize) - 1;
+            first[s] = tour[start];
+            last[s] = tour[end];
+            segmentNext[s] = s + 1 == segments ? 0 : s + 1;
+            segmentPrev[s] = s == 0 ? segments - 1 : s - 1;
+            rank[s] = s;
+            for (int i = start; i <= end; i++) {
+                int city = tour[i];
+                segment[city] = s;
+                id[city] = i - start;
+                storedNext[city] = i < end ? tour[i + 1] : -1;
+                storedPrev[city] = i > start ? tour[i - 1] : -1;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int next(int city) {
+        int s = segment[city];
+        if (reversed[s]) {
+            return city == first[s] ? head(segmentNext[s]) : storedPrev[city];
+        }
+        return city == last[s] ? head(segmentNext[s]) : storedNext[city];
+    }
+
+    @Override
+    public int prev(int city) {
+        int s = segment[city];
+        if (reversed[s]) {
+            return city == last[s] ? tail(segmentPrev[s]) : storedNext[city];
+        }
+        return city == first[s] ? tail(segmentPrev[s]) : storedPrev[city];
+    }
+
+    // First city of the segment in route order.
+    private int head(int s) {
+        return reversed[s] ? last[s] : first[s];
+    }
+
+    private int tail(int s) {
+        return reversed[s] ? first[s] : last[s];
+    }
+
+    private int segmentSize(int s) {
+        return id[last[s]] - id[first[s]] + 1;
+    }
+
+    // Number of cities before the city in its segment, in route order.
+    private int offset(int city) {
+        int s = segment[city];
+        return reversed[s] ? id[last[s]] - id[city] : id[city] - id[first[s]];
+    }
+
+    // Place of the city in the route, counted from the segment of rank 0.
+    private long key(int city) {
+        return ((long) rank[segment[city]] << 32) | offset(city);
+    }
+
+    @Override
+    public boolean between(int a, int b, int c) {
+        long ka = key(a);
+        long kb = key(b);
+        long kc = key(c);
+        if (ka <= kc) {
+            return ka <= kb && kb <= kc;
+        }
+        return kb >= ka || kb <= kc;
+    }
+
+    @Override
+    public void reverse(int from, int to) {
+        if (size < 4 || from == to || next(to) == from) {
+            return;     // The whole route reversed has the same edges.
+        }
+        if (segment[from] == segment[to] && offset(from) <= offset(to)) {
+            reverseInside(from, to);
+            return;
+        }
+
+        // Reversing the complement gives the same tour and relinks fewer segments.
+        int segments = rank.length;
+        int spanned = segment[from] == segment[to] ? segments
+                : (rank[segment[to]] - rank[segment[from]] + segments) % segments;
+        if (2 * spanned > segments) {
+            int complementFrom = next(to);
+            to = prev(from);
+            from = complementFrom;
+            if (segment[from] == segment[to] && offset(from) <= offset(to)) {
+                reverseInside(from, to);
+                return;
+            }
+        }
+
+        splitBefore(from);
+        if (segment[from] == segment[to]) {
+            reverseInside(from, to);
+        } else {
+            splitAfter(to, from);
+            reverseSegments(segment[from], segment[to]);
+        }
+        if (unbalanced) {
+            int[] tour = new int[size];
+            copyTo(tour);
+            build(tour);
+            unbalanced = false;
+        }
+    }
+
+    // Reverses the path from from to to, which lies inside one segment, by renumbering its cities.
+    private void reverseInside(int from, int to) {
+        int s = segment[from];
+        int low = reversed[s] ? to : from;      // Ends of the path in storage order.
+        int high = reversed[s] ? from : to;
+        int count = 0;
+        for (int city = low; city != high; city = storedNext[city]) {
+            buffer[count++] = city;
+        }
+        buffer[count++] = high;
+
+        int before = low == first[s] ? -1 : storedPrev[low];
+        int after = high == last[s] ? -1 : storedNext[high];
+        int base = id[low];
+        for (int i = 0; i < count; i++) {
+            int city = buffer[count - 1 - i];
+            id[city] = base + i;
+            storedPrev[city] = i == 0 ? before : buffer[count - i];
+            storedNext[city] = i == count - 1 ? after : buffer[count - 2 - i];
+        }
+        if (before < 0) {
+            first[s] = high;
+        } else {
+            storedNext[before] = high;
+        }
+        if (after < 0) {
+            last[s] = low;
+        } else {
+            storedPrev[after] = low;
+        }
+    }
+
+    // Makes the city the head of a segment, moving the shorter side into the neighboring segment.
+    private void splitBefore(int city) {
+        int s = segment[city];
+        int before = offset(city);
+        if (before == 0) {
+            return;
+        }
+        if (before <= segmentSize(s) - before) {
+            moveHead(s, city);
+        } else {
+            moveTail(s, city);
+        }
+    }
+
+    // Makes the city the tail of a segment without moving keep, which is the head of a segment.
+    private void splitAfter(int city, int keep) {
+        int s = segment[city];
+        int through = offset(city) + 1;
+        int after = segmentSize(s) - through;
+        if (after == 0) {
+            return;
+        }
+        boolean headMovable = s != segment[keep];
+        boolean tailMovable = segmentNext[s] != segment[keep];
+        if (headMovable && (!tailMovable || through <= after)) {
+            moveHead(s, next(city));
+        } else {
+            moveTail(s, next(city));
+        }
+    }
+
+    // Moves the cities of the segment before the city to the end of the previous segment.
+    private void moveHead(int s, int city) {
+        int target = segmentPrev[s];
+        int count = 0;
+        for (int moved = head(s); moved != city; moved = next(moved)) {
+            buffer[count++] = moved;
+        }
+        if (reversed[s]) {
+            last[s] = city;
+        } else {
+            first[s] = city;
+        }
+        for (int i = 0; i < count; i++) {
+            int moved = buffer[i];
+            segment[moved] = target;
+            if (reversed[target]) {
+                link(moved, first[target]);
+                id[moved] = id[first[target]] - 1;
+                first[target] = moved;
+            } else {
+                link(last[target], moved);
+                id[moved] = id[last[target]] + 1;
+                last[target] = moved;
+            }
+        }
+        unbalanced |= segmentSize(target) > 4 * groupSize;
+    }
+
+    // Moves the city and the cities after it in the segment to the start of the next segment.
+    private void moveTail(int s, int city) {
+        int target = segmentNext[s];
+        int newTail = prev(city);
+        int end = tail(s);
+        int count = 0;
+        for (int moved = city; ; moved = next(moved)) {
+            buffer[count++] = moved;
+            if (moved == end) {
+                break;
+            }
+        }
+        if (reversed[s]) {
+            first[s] = newTail;
+        } else {
+            last[s] = newTail;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            int moved = buffer[i];
+            segment[moved] = target;
+            if (reversed[target]) {
+                link(last[target], moved);
+                id[moved] = id[last[target]] + 1;
+                last[target] = moved;
+            } else {
+                link(moved, first[target]);
+                id[moved] = id[first[target]] - 1;
+                first[target] = moved;
+            }
+        }
+        unbalanced |= segmentSize(target) > 4 * groupSize;
+    }
+
+    // Links two cities of the same segment in storage order.
+    private void link(int before, int after) {
+        storedNext[before] = after;
+        storedPrev[after] = before;
+    }
+
+    // Reverses the run of whole segments from one to another: they are relinked in the opposite
+    // order, take over the ranks of the run and have their reversed bit flipped.
+    private void reverseSegments(int from, int to) {
+        int before = segmentPrev[from];
+        int after = segmentNext[to];
+        int count = 0;
+        for (int s = from; ; s = segmentNext[s]) {
+            buffer[count++] = s;
+            if (s == to) {
+                break;
+            }
+        }
+
+        int firstRank = rank[from];
+        for (int i = 0; i < count; i++) {
+            int s = buffer[count - 1 - i];
+            rank[s] = (firstRank + i) % rank.length;
+            reversed[s] = !reversed[s];
+            segmentPrev[s] = i == 0 ? before : buffer[count - i];
+            segmentNext[s] = i == count - 1 ? after : buffer[count - 2 - i];
+        }
+        segmentNext[before] = to;
+        segmentPrev[after] = from;
+    }
+
+    @Override
+    public void copyTo(int[] destination) {
+        int city = head(0);
+        for (int i = 0; i < size; i++) {
+            destination[i] = city;
+            city = next(city);
+        }
+    }
+}
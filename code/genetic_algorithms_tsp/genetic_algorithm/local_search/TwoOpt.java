@@ -0,0 +1,88 @@
+package genetic_algorithms_tsp.genetic_algorithm.local_search;
+
+import genetic_algorithms_tsp.genetic_objects.Chromosome;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+
+/**
+ * 2-opt local search using neighbor lists and don't-look bits.
+ * A move removes the edges (a, b) and (c, d) and adds (a, c) and (b, d), its gain is computed from
+ * those four cities only. For a city a only its nearest neighbors c are tried, and only while
+ * d(a, c) is shorter than the edge it would replace. Cities whose neighborhood did not change since
+ * they last failed to improve are skipped, the cities of every applied move are looked at again.
+ */
+public class TwoOpt {
+
+    public static Chromosome improve(Chromosome chromosome, Budget budget) {
+        DistanceMatrix distanceMatrix = chromosome.getDistanceMatrix();
+        Tour tour = Tour.of(chromosome.getTour());
+        int gain = improve(tour, distanceMatrix, distanceMatrix.getNeighborList(), budget);
+        return Tour.toChromosome(tour, chromosome, gain);
+    }
+
+    // Improves the tour in place until it is 2-optimal with respect to the neighbor lists and returns the total gain.
+    public static int improve(Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList, Budget budget) {
+        ActiveQueue queue = new ActiveQueue(tour.size());
+        int totalGain = 0;
+
+        while (!queue.isEmpty() && !budget.isExhausted()) {
+            int a = queue.poll();
+            int gain = improveCity(a, tour, distanceMatrix, neighborList, queue, budget);
+            if (gain > 0) {
+                totalGain += gain;
+                budget.moveApplied();
+                queue.add(a);
+            }
+        }
+
+        return totalGain;
+    }
+
+    // Applies the best improving move that adds an edge between a and one of its neighbors.
+    static int improveCity(int a, Tour tour, DistanceMatrix distanceMatrix, NeighborList neighborList,
+                           ActiveQueue queue, Budget budget) {
+        int bestGain = 0;
+        int evaluated = 0;
+        int bestC = -1;
+        boolean bestForward = true;
+
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? tour.next(a) : tour.prev(a);
+            int removedAB = distanceMatrix.distance(a, b);
+
+            for (int rank = 0; rank < neighborList.size(); rank++) {
+                int c = neighborList.get(a, rank);
+                int g1 = removedAB - distanceMatrix.distance(a, c);
+                if (g1 <= 0) {
+                    break; // Neighbors are sorted, no further neighbor can give a gain.
+                }
+
+                int d = forward ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+
+                int gain = g1 + distanceMatrix.distance(c, d) - distanceMatrix.distance(b, d);
+                evaluated++;
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    bestC = c;
+                    bestForward = forward;
+                }
+            }
+        }
+
+        budget.movesEvaluated(evaluated);
+        if (bestGain > 0) {
+            int b = bestForward ? tour.next(a) : tour.prev(a);
+            int d = bestForward ? tour.next(bestC) : tour.prev(bestC);
+            tour.twoOptMove(a, b, bestC, d);
+            queue.add(b);
+            queue.add(bestC);
+            queue.add(d);
+        }
+
+        return bestGain;
+    }
+}
@@ -0,0 +1,99 @@
+package genetic_algorithms_tsp.genetic_algorithm.metrics;
+
+import java.util.Locale;
+
+/**
+ * Where the time of one generation went, and what it produced. Phase times are summed over every
+ * breeding thread, so with several threads they can add up to more than the wall time of the generation.
+ */
+public class GenerationMetrics {
+
+    private final int generation;
+    private final long wallNanos;
+    private final long[] phaseNanos;
+    private final long evaluations;
+    private final long duplicateRejections;
+    private final double diversity;
+    private final long allocatedBytes;
+    private final int bestDistance;
+    private final int averageDistance;
+
+    public GenerationMetrics(int generation, long wallNanos, long[] phaseNanos, long evaluations,
+                             long duplicateRejections, double diversity, long allocatedBytes,
+                             int bestDistance, int averageDistance) {
+        if (phaseNanos.length != Phase.values().length) {
+            throw new IllegalArgumentException("Phase times must be given for every phase.");
+        }
+        this.generation = generation;
+        this.wallNanos = wallNanos;
+        this.phaseNanos = phaseNanos.clone();
+        this.evaluations = evaluations;
+        this.duplicateRejections = duplicateRejections;
+        this.diversity = diversity;
+        this.allocatedBytes = allocatedBytes;
+        this.bestDistance = bestDistance;
+        this.averageDistance = averageDistance;
+    }
+
+    // Number of the generation, the first bred one being 1.
+    public int getGeneration() {
+        return generation;
+    }
+
+    // Time to breed the generation.
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    // Routes evaluated to breed the generation.
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public double getEvaluationsPerSecond() {
+        return wallNanos == 0 ? 0 : evaluations * 1e9 / wallNanos;
+    }
+
+    // Children dropped because they were already in the generation.
+    public long getDuplicateRejections() {
+        return duplicateRejections;
+    }
+
+    // Average share of the edges of the members that the fittest member does not have, see Population.getDiversity.
+    public double getDiversity() {
+        return diversity;
+    }
+
+    // Bytes allocated by the breeding threads, -1 if the JVM does not measure it.
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getBestDistance() {
+        return bestDistance;
+    }
+
+    public int getAverageDistance() {
+        return averageDistance;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Generation %d: %.2f ms", generation, wallNanos / 1e6));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(Locale.ROOT, ", %s %.2f ms", phase.name().toLowerCase(Locale.ROOT),
+                    getNanos(phase) / 1e6));
+        }
+        sb.append(String.format(Locale.ROOT, ", %.0f evaluations/s, %d duplicates, diversity %.3f",
+                getEvaluationsPerSecond(), duplicateRejections, diversity));
+        if (allocatedBytes >= 0) {
+            sb.append(String.format(Locale.ROOT, ", %.1f MB allocated", allocatedBytes / 1e6));
+        }
+        return sb.append(", best ").append(bestDistance).append(", average ").append(averageDistance).toString();
+    }
+}
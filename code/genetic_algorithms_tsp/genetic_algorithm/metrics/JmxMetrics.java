@@ -0,0 +1,156 @@
+package genetic_algorithms_tsp.genetic_algorithm.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Sink that publishes the last generation and the totals of a run as an MBean of the platform server,
+ * named genetic_algorithms_tsp:type=GeneticAlgorithm,name=the given name.
+ */
+public class JmxMetrics implements MetricsSink, JmxMetricsMBean {
+
+    private final ObjectName objectName;
+    private volatile GenerationMetrics last;
+
+    // Guarded by this.
+    private final long[] totalPhaseNanos = new long[Phase.values().length];
+    private long totalWallNanos;
+    private long totalEvaluations;
+    private long totalDuplicateRejections;
+
+    private JmxMetrics(ObjectName objectName) {
+        this.objectName = objectName;
+    }
+
+    public static JmxMetrics register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("genetic_algorithms_tsp:type=GeneticAlgorithm,name="
+                    + ObjectName.quote(name));
+            JmxMetrics metrics = new JmxMetrics(objectName);
+            server.registerMBean(metrics, objectName);
+            return metrics;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("Metrics " + name + " are already registered.", e);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the metrics " + name + ".", e);
+        }
+    }
+
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (InstanceNotFoundException e) {
+            // Already unregistered.
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister the metrics " + objectName + ".", e);
+        }
+    }
+
+    @Override
+    public synchronized void record(GenerationMetrics metrics) {
+        for (Phase phase : Phase.values()) {
+            totalPhaseNanos[phase.ordinal()] += metrics.getNanos(phase);
+        }
+        totalWallNanos += metrics.getWallNanos();
+        totalEvaluations += metrics.getEvaluations();
+        totalDuplicateRejections += metrics.getDuplicateRejections();
+        last = metrics;
+    }
+
+    @Override
+    public int getGeneration() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getGeneration();
+    }
+
+    @Override
+    public int getBestDistance() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getBestDistance();
+    }
+
+    @Override
+    public int getAverageDistance() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getAverageDistance();
+    }
+
+    @Override
+    public double getLastGenerationMillis() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getWallNanos() / 1e6;
+    }
+
+    @Override
+    public double getEvaluationsPerSecond() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getEvaluationsPerSecond();
+    }
+
+    @Override
+    public long getDuplicateRejections() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getDuplicateRejections();
+    }
+
+    @Override
+    public double getDiversity() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getDiversity();
+    }
+
+    @Override
+    public long getAllocatedBytesPerGeneration() {
+        GenerationMetrics metrics = last;
+        return metrics == null ? 0 : metrics.getAllocatedBytes();
+    }
+
+    @Override
+    public synchronized long getTotalEvaluations() {
+        return totalEvaluations;
+    }
+
+    @Override
+    public synchronized long getTotalDuplicateRejections() {
+        return totalDuplicateRejections;
+    }
+
+    @Override
+    public synchronized double getTotalMillis() {
+        return totalWallNanos / 1e6;
+    }
+
+    @Override
+    public double getSelectionMillis() {
+        return getTotalMillis(Phase.SELECTION);
+    }
+
+    @Override
+    public double getCrossoverMillis() {
+        return getTotalMillis(Phase.CROSSOVER);
+    }
+
+    @Override
+    public double getMutationMillis() {
+        return getTotalMillis(Phase.MUTATION);
+    }
+
+    @Override
+    public double getLocalSearchMillis() {
+        return getTotalMillis(Phase.LOCAL_SEARCH);
+    }
+
+    @Override
+    public double getElitismMillis() {
+        return getTotalMillis(Phase.ELITISM);
+    }
+
+    private synchronized double getTotalMillis(Phase phase) {
+        return totalPhaseNanos[phase.ordinal()] / 1e6;
+    }
+}
@@ -0,0 +1,39 @@
+package genetic_algorithms_tsp.genetic_algorithm.metrics;
+
+// Attributes of JmxMetrics seen by JMX clients such as JConsole. Times are in milliseconds.
+public interface JmxMetricsMBean {
+
+    int getGeneration();
+
+    int getBestDistance();
+
+    int getAverageDistance();
+
+    double getLastGenerationMillis();
+
+    double getEvaluationsPerSecond();
+
+    long getDuplicateRejections();
+
+    double getDiversity();
+
+    long getAllocatedBytesPerGeneration();
+
+    // Totals since the metrics were registered.
+
+    long getTotalEvaluations();
+
+    long getTotalDuplicateRejections();
+
+    double getTotalMillis();
+
+    double getSelectionMillis();
+
+    double getCrossoverMillis();
+
+    double getMutationMillis();
+
+    double getLocalSearchMillis();
+
+    double getElitismMillis();
+}
@@ -0,0 +1,22 @@
+package genetic_algorithms_tsp.genetic_algorithm.metrics;
+
+import java.io.PrintStream;
+
+// Receives the metrics of every generation, on the thread running the genetic algorithm; an exception thrown here ends the run.
+@FunctionalInterface
+public interface MetricsSink {
+
+    void record(GenerationMetrics metrics);
+
+    // Prints the metrics of every given number of generations.
+    static MetricsSink printing(PrintStream out, int every) {
+        if (every < 1) {
+            throw new IllegalArgumentException("Generations between prints must be greater than 0.");
+        }
+        return metrics -> {
+            if (metrics.getGeneration() % every == 0) {
+                out.println(metrics);
+            }
+        };
+    }
+}
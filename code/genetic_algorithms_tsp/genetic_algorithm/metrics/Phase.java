@@ -0,0 +1,10 @@
+package genetic_algorithms_tsp.genetic_algorithm.metrics;
+
+// Steps of breeding a generation whose time is measured.
+public enum Phase {
+    SELECTION,
+    CROSSOVER,
+    MUTATION,       // Including the mutation of duplicates admitted once the population has converged.
+    LOCAL_SEARCH,
+    ELITISM         // Without the local search of the elites, which counts as LOCAL_SEARCH.
+}
@@ -0,0 +1,24 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Stops once the diversity of the population falls below the floor, between 0 and 1.
+public class DiversityFloor implements StopCriterion {
+
+    private final double floor;
+
+    public DiversityFloor(double floor) {
+        if (floor < 0 || floor > 1) {
+            throw new IllegalArgumentException("Diversity floor must be between 0 and 1 inclusive.");
+        }
+        this.floor = floor;
+    }
+
+    @Override
+    public StopReason check(RunProgress progress) {
+        return progress.getDiversity() < floor ? StopReason.DIVERSITY_FLOOR : null;
+    }
+
+    @Override
+    public String toString() {
+        return "diversity below " + floor;
+    }
+}
@@ -0,0 +1,24 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Stops after the first generation that reaches the number of route evaluations, as counted by RunProgress.
+public class EvaluationLimit implements StopCriterion {
+
+    private final long evaluations;
+
+    public EvaluationLimit(long evaluations) {
+        if (evaluations < 0) {
+            throw new IllegalArgumentException("Evaluation limit cannot be negative.");
+        }
+        this.evaluations = evaluations;
+    }
+
+    @Override
+    public StopReason check(RunProgress progress) {
+        return progress.getEvaluations() >= evaluations ? StopReason.EVALUATION_LIMIT : null;
+    }
+
+    @Override
+    public String toString() {
+        return evaluations + " evaluations";
+    }
+}
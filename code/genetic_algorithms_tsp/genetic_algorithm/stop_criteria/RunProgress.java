@@ -0,0 +1,22 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// State of a running genetic algorithm, as seen by the stop criteria after every generation.
+public interface RunProgress {
+
+    // Generations run so far.
+    int getGeneration();
+
+    long getElapsedMillis();
+
+    // Routes evaluated so far: the first generation, every child bred or mutated and every candidate move
+    // evaluated by local search.
+    long getEvaluations();
+
+    // Best distance found so far.
+    int getBestDistance();
+
+    int getGenerationsWithoutImprovement();
+
+    // Average share of the edges of a member that the fittest member does not use, 0 once the population converged.
+    double getDiversity();
+}
@@ -0,0 +1,24 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Stops once the best distance has not improved for a number of generations.
+public class Stagnation implements StopCriterion {
+
+    private final int generations;
+
+    public Stagnation(int generations) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("Stagnation window must be greater than 0.");
+        }
+        this.generations = generations;
+    }
+
+    @Override
+    public StopReason check(RunProgress progress) {
+        return progress.getGenerationsWithoutImprovement() >= generations ? StopReason.STAGNATION : null;
+    }
+
+    @Override
+    public String toString() {
+        return "no improvement in " + generations + " generations";
+    }
+}
@@ -0,0 +1,8 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Condition ending a run of the genetic algorithm before its last generation.
+public interface StopCriterion {
+
+    // Null while the run may go on, otherwise the reason to stop it.
+    StopReason check(RunProgress progress);
+}
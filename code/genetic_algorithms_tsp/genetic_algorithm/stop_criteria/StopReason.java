@@ -0,0 +1,12 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Why a run of the genetic algorithm ended.
+public enum StopReason {
+    MAX_GENERATIONS,    // Every generation allowed was run.
+    STAGNATION,         // The best distance stopped improving.
+    TARGET_REACHED,     // A route as short as the target was found.
+    TIME_LIMIT,
+    EVALUATION_LIMIT,
+    DIVERSITY_FLOOR,    // The population converged.
+    CANCELLED
+}
@@ -0,0 +1,36 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Stops once a route at most as long as the target is found.
+public class TargetDistance implements StopCriterion {
+
+    private final int target;
+
+    public TargetDistance(int target) {
+        if (target < 0) {
+            throw new IllegalArgumentException("Target distance cannot be negative.");
+        }
+        this.target = target;
+    }
+
+    // Target within the gap of a known optimum, for example 0.01 for 1% above it.
+    public static TargetDistance gapToOptimum(int optimum, double gap) {
+        if (gap < 0) {
+            throw new IllegalArgumentException("Gap cannot be negative.");
+        }
+        return new TargetDistance((int) Math.min(Integer.MAX_VALUE, Math.floor(optimum * (1 + gap))));
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    @Override
+    public StopReason check(RunProgress progress) {
+        return progress.getBestDistance() <= target ? StopReason.TARGET_REACHED : null;
+    }
+
+    @Override
+    public String toString() {
+        return "distance of " + target;
+    }
+}
@@ -0,0 +1,24 @@
+package genetic_algorithms_tsp.genetic_algorithm.stop_criteria;
+
+// Stops after the first generation that ends past the wall-clock limit.
+public class TimeLimit implements StopCriterion {
+
+    private final long timeLimitMillis;
+
+    public TimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative.");
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    @Override
+    public StopReason check(RunProgress progress) {
+        return progress.getElapsedMillis() >= timeLimitMillis ? StopReason.TIME_LIMIT : null;
+    }
+
+    @Override
+    public String toString() {
+        return timeLimitMillis + " ms";
+    }
+}
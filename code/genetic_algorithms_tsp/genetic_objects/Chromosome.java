@@ -1,39 +1,100 @@
 package genetic_algorithms_tsp.genetic_objects;
 
-import java.util.Arrays;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-// Contains an array of City objects which represents a route the cities.
+// Contains an array of city ids which represents a route through the cities.
+// The City objects themselves are only looked up for printing and drawing.
+// Two chromosomes are equal when they have the same edges, whatever city they start at and in which direction.
 public class Chromosome implements Comparable<Chromosome> {
 
-    private final City[] cities;
+    private final int[] tour;
+    private final DistanceMatrix distanceMatrix;
     private int distance = -1;
-    private Random random;
+    private volatile long hash;     // 0 until computed, see getHash. Volatile, parents are shared between threads.
 
-    public Chromosome(City[] cities) {
-        this.cities = cities.clone();
+    // The tour array is taken over by the Chromosome and must not be modified afterwards.
+    public Chromosome(int[] tour, DistanceMatrix distanceMatrix) {
+        this.tour = tour;
+        this.distanceMatrix = distanceMatrix;
     }
 
-    public Chromosome(City[] cities, Random random) {
-        this.cities = cities.clone();
-        this.random = random;
-        shuffle();
+    // Used when the distance of the route is already known, for example from the gain of a local search.
+    public Chromosome(int[] tour, DistanceMatrix distanceMatrix, int distance) {
+        this.tour = tour;
+        this.distanceMatrix = distanceMatrix;
+        this.distance = distance;
     }
 
-    private void shuffle() {
-        for (int i = 0; i < cities.length; i++) {
-            swap(i, random.nextInt(cities.length));
+    // Used when the hash is already known too, for example updated edge by edge by a crossover.
+    public Chromosome(int[] tour, DistanceMatrix distanceMatrix, int distance, long hash) {
+        this(tour, distanceMatrix, distance);
+        this.hash = hash;
+    }
+
+    /**
+     * Child with a route that differs from this one by a move whose change of the distance and of the
+     * hash (the XOR of the keys of the removed and added edges) is already known, so neither has to be
+     * computed over the whole route. The hash is only passed on if this one was already computed.
+     */
+    public Chromosome withMove(int[] tour, int distanceChange, long hashChange) {
+        Chromosome child = new Chromosome(tour, distanceMatrix, getDistance() + distanceChange);
+        long h = hash;
+        if (h != 0) {
+            child.hash = h ^ hashChange;
+        }
+        return child;
+    }
+
+    // Creates a random route through every city of the distance matrix.
+    public Chromosome(DistanceMatrix distanceMatrix, RandomGenerator random) {
+        this.tour = new int[distanceMatrix.size()];
+        this.distanceMatrix = distanceMatrix;
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = i;
+        }
+        shuffle(random);
+    }
+
+    private void shuffle(RandomGenerator random) {
+        for (int i = 0; i < tour.length; i++) {
+            swap(i, random.nextInt(tour.length));
         }
     }
 
     private void swap(int i, int j) {
-        City temp = cities[i];
-        cities[i] = cities[j];
-        cities[j] = temp;
+        int temp = tour[i];
+        tour[i] = tour[j];
+        tour[j] = temp;
+    }
+
+    public int size() {
+        return tour.length;
+    }
+
+    // Id of the city visited at the given position of the route.
+    public int getCityId(int position) {
+        return tour[position];
+    }
+
+    public int[] getTour() {
+        return tour.clone();
+    }
+
+    // Copies the route into an existing array instead of allocating a new one.
+    public void copyTour(int[] destination) {
+        System.arraycopy(tour, 0, destination, 0, tour.length);
     }
 
     public City[] getCitiesArray() {
-        return cities.clone();
+        City[] cities = new City[tour.length];
+        for (int i = 0; i < tour.length; i++) {
+            cities[i] = distanceMatrix.getCity(tour[i]);
+        }
+        return cities;
+    }
+
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
     }
 
     // used in Priority queue
@@ -49,32 +110,86 @@ public class Chromosome implements Comparable<Chromosome> {
             return distance;
         }
 
-        double distanceTravelled = 0;
+        this.distance = distanceMatrix.tourLength(tour);
+        return distance;
+    }
+
+    /**
+     * Zobrist-style hash of the route: the XOR of edgeHash over all of its edges. It does not depend on the
+     * city the route starts at or on its direction, and a move that replaces some edges updates it by
+     * XOR-ing out the removed edges and XOR-ing in the added ones.
+     *
+     * The hash is kept in a single field, 0 standing for not computed yet, so threads sharing a chromosome
+     * either see the whole hash or compute it again themselves. A route whose hash is 0 is never cached,
+     * which keeps every cached hash exact for the updates by withMove.
+     */
+    public long getHash() {
 
-        for (int i = 1; i < cities.length; i++) {
-            distanceTravelled += City.distance(cities[i - 1], cities[i]);
+        // If this was already calculated, don't calculate it again.
+        long h = hash;
+        if (h != 0) {
+            return h;
         }
 
-        distanceTravelled += City.distance(cities[cities.length - 1], cities[0]);
-        this.distance = (int) distanceTravelled;
-        return distance;
+        for (int i = 0; i < tour.length; i++) {
+            h ^= edgeHash(tour[i], tour[i == tour.length - 1 ? 0 : i + 1]);
+        }
+        hash = h;
+        return h;
+    }
+
+    // Random-looking key of the undirected edge between the cities a and b (SplitMix64 finalizer).
+    public static long edgeHash(int a, int b) {
+        long z = a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = getHash();
+        return (int) (h ^ (h >>> 32));
     }
 
     // used in comparison Chromosome
     @Override
     public boolean equals(Object o) {
-        if (!(o instanceof Chromosome c)) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Chromosome c) || c.tour.length != tour.length || c.getHash() != getHash()) {
             return false;
         }
 
-        return Arrays.equals(c.cities, cities);
+        return sameRoute(c.tour);
+    }
+
+    // Whether other visits the cities in the same cyclic order as this route, forwards or backwards.
+    private boolean sameRoute(int[] other) {
+        int n = tour.length;
+        int start = 0;
+        while (start < n && other[start] != tour[0]) {
+            start++;
+        }
+        if (start == n) {
+            return false;
+        }
+
+        boolean forward = true;
+        boolean backward = true;
+        for (int i = 1; i < n && (forward || backward); i++) {
+            forward &= tour[i] == other[(start + i) % n];
+            backward &= tour[i] == other[(start - i + n) % n];
+        }
+        return forward || backward;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("[ ");
-        for (City item : cities) {
-            sb.append(item.getName());
+        for (int id : tour) {
+            sb.append(distanceMatrix.getCity(id).getName());
             sb.append(" ");
         }
         sb.append("]");
@@ -0,0 +1,114 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+import java.util.Arrays;
+
+/**
+ * Set of chromosomes for duplicate checks, keyed by their route hash with open addressing and linear probing.
+ * Clearing only starts a new epoch, slots stamped with an older epoch count as empty, so one set can be
+ * reused for every generation without touching its arrays. Chromosomes with the same hash are compared
+ * with equals, so a hash collision never rejects a different route. The chromosomes of older epochs stay
+ * referenced until their slots are reused.
+ */
+public class ChromosomeSet {
+    private long[] hashes;
+    private Chromosome[] chromosomes;
+    private int[] epochs;
+    private int epoch = 1;
+    private int mask;
+    private int size;
+    private int rejections;     // Duplicates offered since the last clear.
+
+    public ChromosomeSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative.");
+        }
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity];
+        chromosomes = new Chromosome[capacity];
+        epochs = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // Adds the chromosome and returns true, or returns false if an equal one is already in the set.
+    public boolean add(Chromosome chromosome) {
+        long hash = chromosome.getHash();
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (epochs[slot] == epoch) {
+            if (hashes[slot] == hash && chromosomes[slot].equals(chromosome)) {
+                rejections++;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        epochs[slot] = epoch;
+        hashes[slot] = hash;
+        chromosomes[slot] = chromosome;
+        size++;
+
+        // Keep the load below one half so that probe sequences stay short.
+        if (size * 2 > hashes.length) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldHashes = hashes;
+        Chromosome[] oldChromosomes = chromosomes;
+        int[] oldEpochs = epochs;
+        allocate(oldHashes.length * 2);
+
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldEpochs[i] == epoch) {
+                int slot = (int) (oldHashes[i] ^ (oldHashes[i] >>> 32)) & mask;
+                while (epochs[slot] == epoch) {
+                    slot = (slot + 1) & mask;
+                }
+                epochs[slot] = epoch;
+                hashes[slot] = oldHashes[i];
+                chromosomes[slot] = oldChromosomes[i];
+            }
+        }
+    }
+
+    public boolean contains(Chromosome chromosome) {
+        long hash = chromosome.getHash();
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (epochs[slot] == epoch) {
+            if (hashes[slot] == hash && chromosomes[slot].equals(chromosome)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        epoch++;
+        if (epoch == 0) {
+            // The epochs wrapped around, stale stamps could look current again.
+            Arrays.fill(epochs, 0);
+            epoch = 1;
+        }
+        size = 0;
+        rejections = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRejections() {
+        return rejections;
+    }
+}
@@ -4,16 +4,22 @@ import java.util.Random;
 
 public class City {
 
+    private final int id;       // Index of the city in its data set.
     private final String name;
     private final int x;
     private final int y;
 
-    public City(String name, int x, int y) {
+    public City(int id, String name, int x, int y) {
+        this.id = id;
         this.name = name;
         this.x = x; // x coordinate
         this.y = y; // y coordinate
     }
 
+    public int getId() {
+        return id;
+    }
+
     public String getName() {
         return name;
     }
@@ -26,11 +32,11 @@ public class City {
         return y;
     }
 
-    public static City getRandomCity(Random random) {
+    public static City getRandomCity(int id, Random random) {
         String name = getRandomName(random);
         int x = random.nextInt(500);
         int y = random.nextInt(500);
-        return new City(name, x, y);
+        return new City(id, name, x, y);
     }
 
     private static String getRandomName(Random random) {
@@ -0,0 +1,110 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+import genetic_algorithms_tsp.import_data.TspInstance;
+
+// Flat table of the distance between every pair of cities, indexed by city id.
+// It is built once per data set and shared by every Chromosome of that data set,
+// so evaluating a route is a table lookup per edge instead of a square root.
+// Above MAX_TABLE_SIZE cities the table would not fit in memory, distances are then computed by the instance.
+public class DistanceMatrix {
+    private static final int NEIGHBORS = 10;   // Candidates per city used by local search.
+    private static final int MAX_TABLE_SIZE = 5000;    // 100 MB of distances.
+
+    private final TspInstance instance;
+    private final City[] cities;
+    private final int size;
+    private final int[] distances;      // Null above MAX_TABLE_SIZE cities.
+    private NeighborList neighborList;
+
+    public DistanceMatrix(City[] cities) {
+        this(TspInstance.fromCities("random", cities), cities);
+    }
+
+    public DistanceMatrix(TspInstance instance) {
+        this(instance, instance.toCities());
+    }
+
+    /**
+     * Matrix with tables that were already computed, for example read from a cache. Either may be null:
+     * the distances are then computed as usual and the neighbor list is built on first use.
+     */
+    public DistanceMatrix(TspInstance instance, int[] distances, NeighborList neighborList) {
+        if (distances != null && distances.length != instance.getDimension() * instance.getDimension()) {
+            throw new IllegalArgumentException("Distances must hold a value for every pair of cities.");
+        }
+        this.instance = instance;
+        this.cities = instance.toCities();
+        this.size = instance.getDimension();
+        this.distances = distances != null ? distances : computeDistances(instance);
+        this.neighborList = neighborList;
+    }
+
+    private DistanceMatrix(TspInstance instance, City[] cities) {
+        this.instance = instance;
+        this.cities = cities.clone();
+        this.size = instance.getDimension();
+        this.distances = computeDistances(instance);
+    }
+
+    private static int[] computeDistances(TspInstance instance) {
+        int size = instance.getDimension();
+        if (size > MAX_TABLE_SIZE) {
+            return null;
+        }
+
+        int[] distances = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int distance = instance.distance(i, j);
+                distances[i * size + j] = distance;
+                distances[j * size + i] = distance;
+            }
+        }
+        return distances;
+    }
+
+    public int distance(int city1, int city2) {
+        if (distances == null) {
+            return instance.distance(city1, city2);
+        }
+        return distances[city1 * size + city2];
+    }
+
+    // Length of the closed route visiting the city ids in the given order.
+    public int tourLength(int[] tour) {
+        int length = distance(tour[tour.length - 1], tour[0]);
+        for (int i = 1; i < tour.length; i++) {
+            length += distance(tour[i - 1], tour[i]);
+        }
+        return length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Whether distances are looked up in a table rather than computed on every call.
+    public boolean hasTable() {
+        return distances != null;
+    }
+
+    public TspInstance getInstance() {
+        return instance;
+    }
+
+    // Built on first use and then shared by every thread working on this data set.
+    public synchronized NeighborList getNeighborList() {
+        if (neighborList == null) {
+            neighborList = new NeighborList(this, Math.min(NEIGHBORS, size - 1));
+        }
+        return neighborList;
+    }
+
+    public City getCity(int id) {
+        return cities[id];
+    }
+
+    public City[] getCities() {
+        return cities.clone();
+    }
+}
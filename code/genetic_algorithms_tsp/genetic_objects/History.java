@@ -0,0 +1,146 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+/**
+ * Bounded series of int values, one per generation, kept as the minimum, maximum and sum of buckets of
+ * consecutive values. Every value has a bucket of its own until the capacity is reached; then the
+ * buckets are merged in pairs, each one covering twice as many values, so that memory stays the same
+ * however long the run. Adding a value is O(1) amortized.
+ */
+public class History {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int[] min;
+    private final int[] max;
+    private final long[] sum;
+    private int buckets;            // Buckets in use.
+    private int bucketSize = 1;     // Values per bucket, only the last one may have fewer.
+    private int fill;               // Values in the last bucket.
+    private long size;
+    private int last;
+
+    public History() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public History(int capacity) {
+        if (capacity < 2 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("Capacity must be an even number greater than 0.");
+        }
+        min = new int[capacity];
+        max = new int[capacity];
+        sum = new long[capacity];
+    }
+
+    public void add(int value) {
+        if (buckets == 0 || fill == bucketSize) {
+            if (buckets == min.length) {
+                mergePairs();
+            }
+            min[buckets] = value;
+            max[buckets] = value;
+            sum[buckets] = value;
+            buckets++;
+            fill = 1;
+        } else {
+            int bucket = buckets - 1;
+            min[bucket] = Math.min(min[bucket], value);
+            max[bucket] = Math.max(max[bucket], value);
+            sum[bucket] += value;
+            fill++;
+        }
+        size++;
+        last = value;
+    }
+
+    // Only called when every bucket is full, so the merged ones are full too.
+    private void mergePairs() {
+        for (int i = 0; i < buckets / 2; i++) {
+            min[i] = Math.min(min[2 * i], min[2 * i + 1]);
+            max[i] = Math.max(max[2 * i], max[2 * i + 1]);
+            sum[i] = sum[2 * i] + sum[2 * i + 1];
+        }
+        buckets /= 2;
+        bucketSize *= 2;
+        fill = bucketSize;
+    }
+
+    public void clear() {
+        buckets = 0;
+        bucketSize = 1;
+        fill = 0;
+        size = 0;
+    }
+
+    // Number of values added.
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getLast() {
+        if (size == 0) {
+            throw new IllegalStateException("History is empty.");
+        }
+        return last;
+    }
+
+    public int getBucketCount() {
+        return buckets;
+    }
+
+    // Values per bucket, 1 as long as the history is exact.
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    // Index of the first value of the bucket.
+    public long getFirstIndex(int bucket) {
+        return (long) bucket * bucketSize;
+    }
+
+    public int getCount(int bucket) {
+        checkBucket(bucket);
+        return bucket == buckets - 1 ? fill : bucketSize;
+    }
+
+    public int getMin(int bucket) {
+        checkBucket(bucket);
+        return min[bucket];
+    }
+
+    public int getMax(int bucket) {
+        checkBucket(bucket);
+        return max[bucket];
+    }
+
+    public double getAverage(int bucket) {
+        return (double) sum[bucket] / getCount(bucket);
+    }
+
+    private void checkBucket(int bucket) {
+        if (bucket < 0 || bucket >= buckets) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket + " out of " + buckets + ".");
+        }
+    }
+
+    // Smallest value added, Integer.MAX_VALUE if none.
+    public int getMin() {
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i < buckets; i++) {
+            result = Math.min(result, min[i]);
+        }
+        return result;
+    }
+
+    // Largest value added, Integer.MIN_VALUE if none.
+    public int getMax() {
+        int result = Integer.MIN_VALUE;
+        for (int i = 0; i < buckets; i++) {
+            result = Math.max(result, max[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,258 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+import genetic_algorithms_tsp.import_data.TspInstance;
+
+import java.util.Arrays;
+
+/**
+ * 2-d tree over the coordinates of the cities, for nearest neighbor queries in O(log n) on average.
+ * The tree is implicit in the order array: the city at the middle of a range splits it, the cities
+ * before it lie on its low side and those after it on its high side of the split axis, which is the
+ * axis along which the range is widest. Building takes O(n log n).
+ * Cities can be removed from the tree, for example once a tour visits them, and restored all at once;
+ * every node counts the cities left in its range so that emptied ranges are skipped.
+ * Queries keep their state in the tree, so one tree must not be queried by several threads at once.
+ */
+public class KdTree {
+    public static final int ALL = -1;   // Quadrant that accepts every city.
+
+    private final double[] x;
+    private final double[] y;
+    private final int[] order;
+    private final boolean[] splitOnX;   // By position in order, for the city splitting its range.
+    private final int[] positions;      // Position of every city in order.
+    private final int[] rangeSizes;     // By position in order, cities in the range split there.
+    private final int[] remaining;      // Same, without the removed cities.
+    private final boolean[] removed;
+
+    // State of the current query.
+    private double queryX;
+    private double queryY;
+    private int queryCity;
+    private int queryQuadrant;
+    private int[] found;
+    private double[] foundDistances;    // Squared, ascending.
+    private int foundCount;
+    private int wanted;
+
+    public KdTree(TspInstance instance) {
+        this(coordinates(instance, true), coordinates(instance, false));
+    }
+
+    public KdTree(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Every city needs both coordinates.");
+        }
+        this.x = x;
+        this.y = y;
+        int n = x.length;
+        order = new int[n];
+        splitOnX = new boolean[n];
+        positions = new int[n];
+        rangeSizes = new int[n];
+        removed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        build(0, n);
+        for (int i = 0; i < n; i++) {
+            positions[order[i]] = i;
+        }
+        remaining = rangeSizes.clone();
+    }
+
+    private static double[] coordinates(TspInstance instance, boolean onX) {
+        if (!instance.hasCoordinates()) {
+            throw new IllegalArgumentException("Instance " + instance.getName() + " has no coordinates.");
+        }
+        double[] coordinates = new double[instance.getDimension()];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = onX ? instance.getX(i) : instance.getY(i);
+        }
+        return coordinates;
+    }
+
+    private void build(int low, int high) {
+        if (high - low < 2) {
+            if (high > low) {
+                splitOnX[low] = true;
+                rangeSizes[low] = 1;
+            }
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = low; i < high; i++) {
+            int city = order[i];
+            minX = Math.min(minX, x[city]);
+            maxX = Math.max(maxX, x[city]);
+            minY = Math.min(minY, y[city]);
+            maxY = Math.max(maxY, y[city]);
+        }
+
+        boolean onX = maxX - minX >= maxY - minY;
+        int middle = (low + high) >>> 1;
+        select(low, high - 1, middle, onX ? x : y);
+        splitOnX[middle] = onX;
+        rangeSizes[middle] = high - low;
+
+        build(low, middle);
+        build(middle + 1, high);
+    }
+
+    // Quickselect: moves the city of rank k within [low, high] by the coordinate to position k.
+    private void select(int low, int high, int k, double[] coordinate) {
+        while (low < high) {
+            double pivot = coordinate[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (coordinate[order[i]] < pivot) {
+                    i++;
+                }
+                while (coordinate[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Leaves the city out of the following queries, O(log n).
+    public void remove(int city) {
+        if (removed[city]) {
+            return;
+        }
+        removed[city] = true;
+        int position = positions[city];
+        int low = 0;
+        int high = order.length;
+        while (true) {
+            int middle = (low + high) >>> 1;
+            remaining[middle]--;
+            if (position == middle) {
+                return;
+            } else if (position < middle) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+    }
+
+    // Puts every removed city back, O(n).
+    public void restoreAll() {
+        Arrays.fill(removed, false);
+        System.arraycopy(rangeSizes, 0, remaining, 0, rangeSizes.length);
+    }
+
+    // Quadrant of the other city as seen from the city: bit 0 set if it lies to the left, bit 1 if below.
+    // A city at the same coordinates is in quadrant 0.
+    public int quadrant(int city, int other) {
+        return (x[other] < x[city] ? 1 : 0) | (y[other] < y[city] ? 2 : 0);
+    }
+
+    /**
+     * Finds up to k cities nearest to the city, other than itself and the removed cities, in the given
+     * quadrant or in ALL.
+     * Writes them into result, nearest first, and returns how many were found.
+     */
+    public int nearest(int city, int quadrant, int k, int[] result) {
+        queryX = x[city];
+        queryY = y[city];
+        queryCity = city;
+        queryQuadrant = quadrant;
+        found = result;
+        if (foundDistances == null || foundDistances.length < k) {
+            foundDistances = new double[k];
+        }
+        foundCount = 0;
+        wanted = k;
+
+        if (k > 0) {
+            search(0, order.length);
+        }
+        return foundCount;
+    }
+
+    private void search(int low, int high) {
+        if (low >= high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        if (remaining[middle] == 0) {
+            return;
+        }
+        int city = order[middle];
+        boolean onX = splitOnX[middle];
+
+        if (city != queryCity && !removed[city]
+                && (queryQuadrant == ALL || quadrant(queryCity, city) == queryQuadrant)) {
+            double dx = x[city] - queryX;
+            double dy = y[city] - queryY;
+            offer(city, dx * dx + dy * dy);
+        }
+
+        double split = onX ? x[city] : y[city];
+        double query = onX ? queryX : queryY;
+        double difference = query - split;
+
+        // The low side only holds cities at or before the split, the high side at or after it.
+        boolean lowPossible = true;
+        boolean highPossible = true;
+        if (queryQuadrant != ALL) {
+            boolean wantsBefore = ((queryQuadrant >> (onX ? 0 : 1)) & 1) == 1;
+            lowPossible = wantsBefore || split >= query;
+            highPossible = !wantsBefore || split < query;
+        }
+
+        if (difference < 0) {
+            if (lowPossible) {
+                search(low, middle);
+            }
+            if (highPossible && isCloser(difference * difference)) {
+                search(middle + 1, high);
+            }
+        } else {
+            if (highPossible) {
+                search(middle + 1, high);
+            }
+            if (lowPossible && isCloser(difference * difference)) {
+                search(low, middle);
+            }
+        }
+    }
+
+    private boolean isCloser(double squaredDistance) {
+        return foundCount < wanted || squaredDistance < foundDistances[foundCount - 1];
+    }
+
+    // Insertion into the sorted list of the nearest cities found so far.
+    private void offer(int city, double squaredDistance) {
+        if (!isCloser(squaredDistance)) {
+            return;
+        }
+        int i = (foundCount < wanted) ? foundCount++ : wanted - 1;
+        while (i > 0 && foundDistances[i - 1] > squaredDistance) {
+            foundDistances[i] = foundDistances[i - 1];
+            found[i] = found[i - 1];
+            i--;
+        }
+        foundDistances[i] = squaredDistance;
+        found[i] = city;
+    }
+}
@@ -0,0 +1,138 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+import genetic_algorithms_tsp.import_data.TspInstance;
+
+// The k nearest cities of every city, nearest first, stored in one flat array.
+// Local search only tries to connect a city to its neighbors instead of to all n cities.
+// Instances with planar coordinates are searched with a k-d tree, others by comparing every pair.
+public class NeighborList {
+
+    private final int k;
+    private final int[] neighbors;
+
+    public NeighborList(DistanceMatrix distanceMatrix, int k) {
+        this(distanceMatrix, k, false);
+    }
+
+    private NeighborList(DistanceMatrix distanceMatrix, int k, boolean quadrants) {
+        int size = distanceMatrix.size();
+        if (k < 1 || k >= size) {
+            throw new IllegalArgumentException("K must be between 1 and the number of cities - 1.");
+        }
+        this.k = k;
+        this.neighbors = new int[size * k];
+
+        TspInstance instance = distanceMatrix.getInstance();
+        if (instance.hasCoordinates() && instance.isPlanar()) {
+            searchTree(distanceMatrix, new KdTree(instance), quadrants);
+        } else {
+            searchAll(distanceMatrix);
+        }
+    }
+
+    /**
+     * The k/4 nearest cities in each quadrant around every city, completed with its nearest other cities,
+     * nearest first. On clustered instances the k nearest cities all lie in the same cluster, quadrant
+     * neighbors also offer edges leaving it. Without planar coordinates, these are the k nearest cities.
+     */
+    public static NeighborList quadrantNeighbors(DistanceMatrix distanceMatrix, int k) {
+        return new NeighborList(distanceMatrix, k, true);
+    }
+
+    // O(n log n) on average with the k-d tree.
+    private void searchTree(DistanceMatrix distanceMatrix, KdTree tree, boolean quadrants) {
+        int size = distanceMatrix.size();
+        int perQuadrant = quadrants ? k / 4 : 0;
+        int[] nearest = new int[k];
+        int[] nearestDistances = new int[k];
+
+        for (int city = 0; city < size; city++) {
+            int offset = city * k;
+            int found = 0;
+            for (int quadrant = 0; quadrant < 4 && perQuadrant > 0; quadrant++) {
+                int count = tree.nearest(city, quadrant, perQuadrant, nearest);
+                System.arraycopy(nearest, 0, neighbors, offset + found, count);
+                found += count;
+            }
+
+            // The k nearest cities hold enough cities that were not taken yet to fill the list.
+            int count = tree.nearest(city, KdTree.ALL, k, nearest);
+            for (int i = 0; i < count && found < k; i++) {
+                if (!contains(offset, found, nearest[i])) {
+                    neighbors[offset + found++] = nearest[i];
+                }
+            }
+
+            // Stable insertion sort by distance, which keeps cities at the same rounded distance nearest first.
+            for (int i = 0; i < k; i++) {
+                int other = neighbors[offset + i];
+                int distance = distanceMatrix.distance(city, other);
+                int j = i;
+                while (j > 0 && nearestDistances[j - 1] > distance) {
+                    nearestDistances[j] = nearestDistances[j - 1];
+                    neighbors[offset + j] = neighbors[offset + j - 1];
+                    j--;
+                }
+                nearestDistances[j] = distance;
+                neighbors[offset + j] = other;
+            }
+        }
+    }
+
+    private boolean contains(int offset, int count, int city) {
+        for (int i = 0; i < count; i++) {
+            if (neighbors[offset + i] == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // O(n^2), for instances whose distances do not follow the coordinates.
+    private void searchAll(DistanceMatrix distanceMatrix) {
+        int size = distanceMatrix.size();
+        int[] nearestDistances = new int[k];
+        for (int city = 0; city < size; city++) {
+            int found = 0;
+            int offset = city * k;
+
+            // Insertion into the sorted list of the k nearest cities found so far.
+            for (int other = 0; other < size; other++) {
+                if (other == city) {
+                    continue;
+                }
+                int distance = distanceMatrix.distance(city, other);
+                if (found == k && distance >= nearestDistances[k - 1]) {
+                    continue;
+                }
+                int i = (found < k) ? found++ : k - 1;
+                while (i > 0 && nearestDistances[i - 1] > distance) {
+                    nearestDistances[i] = nearestDistances[i - 1];
+                    neighbors[offset + i] = neighbors[offset + i - 1];
+                    i--;
+                }
+                nearestDistances[i] = distance;
+                neighbors[offset + i] = other;
+            }
+        }
+    }
+
+    // Neighbor list that was already computed, for example read from a cache: k cities per city, nearest first.
+    public NeighborList(int k, int[] neighbors) {
+        if (k < 1 || neighbors.length % k != 0) {
+            throw new IllegalArgumentException("Neighbors must hold k cities for every city.");
+        }
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    // Number of neighbors of each city.
+    public int size() {
+        return k;
+    }
+
+    // The rank-th nearest city, rank 0 being the nearest.
+    public int get(int city, int rank) {
+        return neighbors[city * k + rank];
+    }
+}
@@ -2,83 +2,194 @@ package genetic_algorithms_tsp.genetic_objects;
 
 import genetic_algorithms_tsp.import_data.ImportData;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.PriorityQueue;
+import java.util.Objects;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
+// Fixed-capacity array of chromosomes. The fittest member and the total distance are kept up to date
+// as members are added, so neither needs a scan of the population.
 public class Population implements Iterable<Chromosome> {
 
-    private final PriorityQueue<Chromosome> chromosomes;
+    private final Chromosome[] chromosomes;
     private final int maxSize;
+    private int size;
+    private Chromosome mostFit;
+    private long totalDistance;
+
+    // Views for selection, built on first use and dropped whenever the population changes.
+    // They are volatile because the workers breeding in parallel share them; a view built twice is harmless.
+    private volatile Chromosome[] ranked;           // Fittest first.
+    private volatile long[] cumulativeFitness;      // Running sum of the fitness of the ranked members.
 
     public Population(int maxSize) {
         this.maxSize = maxSize;
-        chromosomes = new PriorityQueue<>();
+        chromosomes = new Chromosome[maxSize];
     }
 
     public void add(Chromosome chromosome) {
-        if (chromosomes.size() == maxSize) {
+        if (size == maxSize) {
             throw new IllegalArgumentException("Over size.");
         }
-        chromosomes.add(chromosome);
+        chromosomes[size++] = chromosome;
+        totalDistance += chromosome.getDistance();
+        if (mostFit == null || chromosome.getDistance() < mostFit.getDistance()) {
+            mostFit = chromosome;
+        }
+        invalidateViews();
+    }
+
+    // Removes every member, keeping the storage so the population can be filled again.
+    public void clear() {
+        Arrays.fill(chromosomes, 0, size, null);
+        size = 0;
+        mostFit = null;
+        totalDistance = 0;
+        invalidateViews();
+    }
+
+    private void invalidateViews() {
+        ranked = null;
+        cumulativeFitness = null;
+    }
+
+    // Member at the index, in an order that stays the same as long as the population does not change.
+    public Chromosome get(int index) {
+        return chromosomes[Objects.checkIndex(index, size)];
+    }
+
+    // Member at the rank, 0 being the fittest.
+    public Chromosome getRanked(int rank) {
+        return getRanked()[rank];
+    }
+
+    private Chromosome[] getRanked() {
+        Chromosome[] view = ranked;
+        if (view == null) {
+            view = getChromosomes();
+            Arrays.sort(view);
+            ranked = view;
+        }
+        return view;
     }
 
-    public void populate(City[] cities, Random random) {
+    /**
+     * Sum of the fitness of the members ranked 0 to rank. The fitness of a member is how much shorter its
+     * route is than the longest route of the population, plus 1 so that every member can be chosen.
+     */
+    public long getCumulativeFitness(int rank) {
+        long[] sums = cumulativeFitness;
+        if (sums == null) {
+            Chromosome[] view = getRanked();
+            int worst = view[view.length - 1].getDistance();
+            sums = new long[view.length];
+            long sum = 0;
+            for (int i = 0; i < view.length; i++) {
+                sum += worst - view[i].getDistance() + 1;
+                sums[i] = sum;
+            }
+            cumulativeFitness = sums;
+        }
+        return sums[rank];
+    }
 
-        if (chromosomes.size() == maxSize) {
+    public void populate(DistanceMatrix distanceMatrix, RandomGenerator random) {
+        populate(distanceMatrix, random, SeedMix.random());
+    }
+
+    // Fills the population with distinct tours where the instance has enough of them, the given share of each
+    // built by its constructive heuristic.
+    public void populate(DistanceMatrix distanceMatrix, RandomGenerator random, SeedMix seedMix) {
+
+        if (size == maxSize) {
             throw new IllegalArgumentException("Over size.");
         }
 
-        HashSet<Chromosome> hashSet = new HashSet<>();
+        ChromosomeSet added = new ChromosomeSet(maxSize);
+        Seeding seeding = new Seeding(distanceMatrix);
+
+        for (SeedMix.SeedType seedType : SeedMix.SeedType.values()) {
+            int target = Math.min(size + seedMix.getCount(seedType, maxSize), maxSize);
+            // A small instance has few distinct seeds, random tours take the place of the missing ones.
+            for (int attempts = 2 * (target - size); size < target && attempts > 0; attempts--) {
+                Chromosome chromo = seeding.create(seedType, random);
+                if (added.add(chromo)) {
+                    this.add(chromo);
+                }
+            }
+        }
 
-        while (chromosomes.size() < maxSize) {
-            Chromosome chromo = new Chromosome(cities, random);
-            if (!hashSet.contains(chromo)) {
-                hashSet.add(chromo);
+        // An instance with fewer distinct tours than the population has members cannot fill it with distinct
+        // ones, so once the attempts run out the remaining random tours are admitted even if duplicates.
+        for (int attempts = 2 * (maxSize - size); size < maxSize; attempts--) {
+            Chromosome chromo = new Chromosome(distanceMatrix, random);
+            if (added.add(chromo) || attempts <= 0) {
                 this.add(chromo);
             }
         }
     }
 
     public City[] getCities() {
-        if (chromosomes.peek() == null) {
+        if (mostFit == null) {
             throw new IllegalArgumentException("Peak is null");
         }
-        return chromosomes.peek().getCitiesArray().clone();
+        return mostFit.getCitiesArray();
     }
 
     public Chromosome[] getChromosomes() {
-        Chromosome[] array = new Chromosome[chromosomes.size()];
-
-        int i = 0;
-        for (Chromosome chromo : chromosomes) {
-            array[i++] = chromo;
-        }
-
-        return array;
+        return Arrays.copyOf(chromosomes, size);
     }
 
     public int size() {
-        return chromosomes.size();
+        return size;
     }
 
 
     public int getAverageDistance() {
+        return (int) (totalDistance / size);
+    }
 
-        int averageDistance = 0;
-
-        for (Chromosome chromosome : chromosomes) {
-            averageDistance += chromosome.getDistance();
+    /**
+     * Average share of the edges of a member that the fittest member does not use: 0 once every member
+     * has the route of the fittest, close to 1 for random routes. O(size * number of cities).
+     */
+    public double getDiversity() {
+        if (size < 2) {
+            return 0;
+        }
+        int n = mostFit.size();
+        int[] next = new int[n];
+        int[] previous = new int[n];
+        for (int i = 0; i < n; i++) {
+            int a = mostFit.getCityId(i);
+            int b = mostFit.getCityId((i + 1) % n);
+            next[a] = b;
+            previous[b] = a;
         }
 
-        return averageDistance / chromosomes.size();
+        long foreignEdges = 0;
+        for (int member = 0; member < size; member++) {
+            Chromosome chromosome = chromosomes[member];
+            for (int i = 0; i < n; i++) {
+                int a = chromosome.getCityId(i);
+                int b = chromosome.getCityId((i + 1) % n);
+                if (next[a] != b && previous[a] != b) {
+                    foreignEdges++;
+                }
+            }
+        }
+        return (double) foreignEdges / ((long) size * n);
     }
 
     public static Population fromDataSet(int popSize, Random r) {
-        City[] cities = ImportData.getCities();
+        return fromDataSet(popSize, r, SeedMix.random());
+    }
+
+    public static Population fromDataSet(int popSize, Random r, SeedMix seedMix) {
+        DistanceMatrix distanceMatrix = ImportData.getDistanceMatrix();
         Population population = new Population(popSize);
-        population.populate(cities, r);
+        population.populate(distanceMatrix, r, seedMix);
         return population;
     }
 
@@ -86,13 +197,14 @@ public class Population implements Iterable<Chromosome> {
         City[] cities = new City[numOfCities];
 
         for (int i = 0; i < numOfCities; i++) {
-            cities[i] = City.getRandomCity(random);
+            cities[i] = City.getRandomCity(i, random);
         }
 
+        DistanceMatrix distanceMatrix = new DistanceMatrix(cities);
         Population population = new Population(sizeOfPop);
 
         for (int i = 0; i < sizeOfPop; i++) {
-            population.add(new Chromosome(cities, random));
+            population.add(new Chromosome(distanceMatrix, random));
         }
 
         return population;
@@ -100,17 +212,111 @@ public class Population implements Iterable<Chromosome> {
 
     // Get the Chromosome that has the path with the least distance.
     public Chromosome getMostFit() {
-        return chromosomes.peek();
+        return mostFit;
+    }
+
+    // Get the count Chromosomes with the least distance, fittest first.
+    // Moves them to the front of the population, so the order of get changes.
+    public Chromosome[] getMostFit(int count) {
+        count = Math.min(count, size);
+        if (count == 0) {
+            return new Chromosome[0];
+        }
+        selectMostFit(count - 1);
+        Chromosome[] mostFit = Arrays.copyOf(chromosomes, count);
+        Arrays.sort(mostFit);
+        return mostFit;
+    }
+
+    /**
+     * Quickselect: reorders the members so that the one at index kth has the rank kth and every member
+     * before it is at least as fit. Partitions three ways around the median of three, so populations with
+     * many equal distances stay linear. Expected O(n).
+     */
+    private void selectMostFit(int kth) {
+        int left = 0;
+        int right = size - 1;
+
+        while (left < right) {
+            int pivot = medianOfThree(left, (left + right) >>> 1, right).getDistance();
+
+            // Members in [left, lessEnd) are fitter than the pivot, in (greaterStart, right] less fit.
+            int lessEnd = left;
+            int greaterStart = right;
+            int i = left;
+            while (i <= greaterStart) {
+                int distance = chromosomes[i].getDistance();
+                if (distance < pivot) {
+                    swap(i++, lessEnd++);
+                } else if (distance > pivot) {
+                    swap(i, greaterStart--);
+                } else {
+                    i++;
+                }
+            }
+
+            if (kth < lessEnd) {
+                right = lessEnd - 1;
+            } else if (kth > greaterStart) {
+                left = greaterStart + 1;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private Chromosome medianOfThree(int a, int b, int c) {
+        int da = chromosomes[a].getDistance();
+        int db = chromosomes[b].getDistance();
+        int dc = chromosomes[c].getDistance();
+        if ((da <= db) == (db <= dc)) {
+            return chromosomes[b];
+        }
+        if ((db <= da) == (da <= dc)) {
+            return chromosomes[a];
+        }
+        return chromosomes[c];
+    }
+
+    private void swap(int i, int j) {
+        Chromosome temp = chromosomes[i];
+        chromosomes[i] = chromosomes[j];
+        chromosomes[j] = temp;
+    }
+
+    // Replaces the Chromosome that has the path with the greatest distance.
+    public void replaceLeastFit(Chromosome chromosome) {
+        int leastFit = 0;
+        for (int i = 1; i < size; i++) {
+            if (chromosomes[i].getDistance() > chromosomes[leastFit].getDistance()) {
+                leastFit = i;
+            }
+        }
+        Chromosome replaced = chromosomes[leastFit];
+        totalDistance += chromosome.getDistance() - replaced.getDistance();
+        chromosomes[leastFit] = chromosome;
+        if (replaced == mostFit) {
+            // Only when every member was as fit as the replaced one.
+            mostFit = chromosome;
+            for (int i = 0; i < size; i++) {
+                if (chromosomes[i].getDistance() < mostFit.getDistance()) {
+                    mostFit = chromosomes[i];
+                }
+            }
+        } else if (chromosome.getDistance() < mostFit.getDistance()) {
+            mostFit = chromosome;
+        }
+        invalidateViews();
     }
 
     public Iterator<Chromosome> iterator() {
-        return chromosomes.iterator();
+        return Arrays.asList(chromosomes).subList(0, size).iterator();
     }
 
     public Population deepCopy() {
         Population population = new Population(maxSize);
-        for (Chromosome chromosome : chromosomes) {
-            population.add(chromosome);
+        for (int i = 0; i < size; i++) {
+            population.add(chromosomes[i]);
         }
         return population;
     }
@@ -119,11 +325,11 @@ public class Population implements Iterable<Chromosome> {
     public String toString() {
         StringBuilder sb = new StringBuilder("Population:");
 
-        for (Chromosome chromosome : chromosomes) {
+        for (int i = 0; i < size; i++) {
             sb.append("\n");
-            sb.append(chromosome);
+            sb.append(chromosomes[i]);
             sb.append(" Value: ");
-            sb.append(chromosome.getDistance());
+            sb.append(chromosomes[i].getDistance());
         }
 
         return new String(sb);
@@ -0,0 +1,61 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+// Share of an initial population built by each constructive heuristic; random tours fill the rest.
+public class SeedMix {
+
+    public enum SeedType {
+        NEAREST_NEIGHBOR,       // Nearest neighbor tour from a random start city.
+        GREEDY_EDGE,            // Shortest edges first, then a double bridge kick.
+        SPACE_FILLING_CURVE     // Cities in Hilbert curve order, then a double bridge kick.
+    }
+
+    private final double[] shares = new double[SeedType.values().length];
+
+    // Only random tours.
+    public static SeedMix random() {
+        return new SeedMix();
+    }
+
+    public void setShare(SeedType seedType, double share) {
+        if (share < 0 || share > 1) {
+            throw new IllegalArgumentException("Share must be between 0 and 1 inclusive.");
+        }
+        double others = -shares[seedType.ordinal()];
+        for (double other : shares) {
+            others += other;
+        }
+        if (others + share > 1 + 1e-9) {
+            throw new IllegalArgumentException("Shares of the seed types cannot add up to more than 1.");
+        }
+        shares[seedType.ordinal()] = share;
+    }
+
+    public double getShare(SeedType seedType) {
+        return shares[seedType.ordinal()];
+    }
+
+    // Share left to random tours.
+    public double getRandomShare() {
+        double sum = 0;
+        for (double share : shares) {
+            sum += share;
+        }
+        return Math.max(0, 1 - sum);
+    }
+
+    // Number of tours of the type in a population of the size, rounded down.
+    public int getCount(SeedType seedType, int populationSize) {
+        return (int) (shares[seedType.ordinal()] * populationSize + 1e-9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (SeedType seedType : SeedType.values()) {
+            if (getShare(seedType) > 0) {
+                sb.append(seedType).append(' ').append(Math.round(getShare(seedType) * 100)).append("%, ");
+            }
+        }
+        return sb.append("RANDOM ").append(Math.round(getRandomShare() * 100)).append('%').toString();
+    }
+}
@@ -0,0 +1,306 @@
+package genetic_algorithms_tsp.genetic_objects;
+
+import genetic_algorithms_tsp.genetic_objects.SeedMix.SeedType;
+import genetic_algorithms_tsp.import_data.TspInstance;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Constructive tours for the initial population, within a few percent to a quarter of the optimum
+ * where random tours are about ten times longer. Nearest neighbor tours differ by their start city,
+ * once every city has been a start they also get a random double bridge kick. The greedy edge and
+ * space-filling curve tours are built once and every copy gets a kick, so that the seeds differ.
+ * Cities are searched with the neighbor list and, when the instance has planar coordinates, a k-d tree,
+ * so every tour takes O(n log n). A Seeding must not be used by several threads at once.
+ */
+public class Seeding {
+    private static final int CURVE_ORDER = 16;     // The curve passes through a 2^16 by 2^16 grid.
+
+    private final DistanceMatrix distanceMatrix;
+    private final int size;
+    private final KdTree tree;          // Null without planar coordinates.
+    private NeighborList neighborList;
+    private final boolean[] visited;
+    private final int[] nearest = new int[1];
+    private int[] starts;               // Start cities of the nearest neighbor tours, in random order.
+    private int startsUsed;
+    private int[] greedyEdgeTour;       // Built on first use.
+    private int[] curveTour;
+
+    public Seeding(DistanceMatrix distanceMatrix) {
+        TspInstance instance = distanceMatrix.getInstance();
+        this.distanceMatrix = distanceMatrix;
+        this.size = distanceMatrix.size();
+        this.tree = (instance.hasCoordinates() && instance.isPlanar()) ? new KdTree(instance) : null;
+        this.visited = new boolean[size];
+    }
+
+    public Chromosome create(SeedType seedType, RandomGenerator random) {
+        if (seedType == SeedType.NEAREST_NEIGHBOR) {
+            if (startsUsed < size) {
+                return new Chromosome(nearestNeighbor(nextStart(random)), distanceMatrix);
+            }
+            return new Chromosome(doubleBridge(nearestNeighbor(random.nextInt(size)), random), distanceMatrix);
+        } else if (seedType == SeedType.GREEDY_EDGE) {
+            if (greedyEdgeTour == null) {
+                greedyEdgeTour = greedyEdge();
+            }
+            return new Chromosome(doubleBridge(greedyEdgeTour, random), distanceMatrix);
+        } else {
+            if (curveTour == null) {
+                curveTour = spaceFillingCurve();
+            }
+            return new Chromosome(doubleBridge(curveTour, random), distanceMatrix);
+        }
+    }
+
+    // Draws the start cities without replacement, one step of a Fisher-Yates shuffle at a time.
+    private int nextStart(RandomGenerator random) {
+        if (starts == null) {
+            starts = new int[size];
+            for (int i = 0; i < size; i++) {
+                starts[i] = i;
+            }
+        }
+        int i = startsUsed + random.nextInt(size - startsUsed);
+        int start = starts[i];
+        starts[i] = starts[startsUsed];
+        starts[startsUsed++] = start;
+        return start;
+    }
+
+    private void reset() {
+        Arrays.fill(visited, false);
+        if (tree != null) {
+            tree.restoreAll();
+        }
+    }
+
+    private void visit(int city) {
+        visited[city] = true;
+        if (tree != null) {
+            tree.remove(city);
+        }
+    }
+
+    // Goes to the nearest unvisited city until every city is visited.
+    private int[] nearestNeighbor(int start) {
+        reset();
+        int[] tour = new int[size];
+        int city = start;
+        for (int i = 0; i < size; i++) {
+            tour[i] = city;
+            visit(city);
+            if (i < size - 1) {
+                city = nearestUnvisited(city);
+            }
+        }
+        return tour;
+    }
+
+    private int nearestUnvisited(int city) {
+        if (neighborList == null) {
+            neighborList = distanceMatrix.getNeighborList();
+        }
+        for (int rank = 0; rank < neighborList.size(); rank++) {
+            int neighbor = neighborList.get(city, rank);
+            if (!visited[neighbor]) {
+                return neighbor;
+            }
+        }
+        if (tree != null) {
+            tree.nearest(city, KdTree.ALL, 1, nearest);
+            return nearest[0];
+        }
+
+        int closest = -1;
+        for (int other = 0; other < size; other++) {
+            if (!visited[other]
+                    && (closest < 0 || distanceMatrix.distance(city, other) < distanceMatrix.distance(city, closest))) {
+                closest = other;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Adds the candidate edges shortest first whenever both cities still have a free end and the edge
+     * closes no cycle, then joins the resulting paths, each time going to the nearest free end of a path.
+     */
+    private int[] greedyEdge() {
+        if (size < 3) {
+            return nearestNeighbor(0);
+        }
+        NeighborList neighborList = distanceMatrix.getNeighborList();
+        int k = neighborList.size();
+
+        // Distance in the high half, index of the candidate in the low half.
+        long[] edges = new long[size * k];
+        for (int city = 0; city < size; city++) {
+            for (int rank = 0; rank < k; rank++) {
+                int distance = distanceMatrix.distance(city, neighborList.get(city, rank));
+                edges[city * k + rank] = ((long) distance << 32) | (city * k + rank);
+            }
+        }
+        Arrays.sort(edges);
+
+        int[] links = new int[2 * size];    // The two cities linked to every city, -1 for a free end.
+        Arrays.fill(links, -1);
+        int[] parents = new int[size];      // Union-find of the paths.
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+        }
+        for (long edge : edges) {
+            int index = (int) edge;
+            int a = index / k;
+            int b = neighborList.get(a, index % k);
+            if (links[2 * a + 1] < 0 && links[2 * b + 1] < 0) {
+                int rootA = find(parents, a);
+                int rootB = find(parents, b);
+                if (rootA != rootB) {
+                    parents[rootA] = rootB;
+                    links[2 * a + (links[2 * a] < 0 ? 0 : 1)] = b;
+                    links[2 * b + (links[2 * b] < 0 ? 0 : 1)] = a;
+                }
+            }
+        }
+
+        reset();
+        if (tree != null) {
+            // Only the free ends are left in the tree to join paths.
+            for (int city = 0; city < size; city++) {
+                if (links[2 * city + 1] >= 0) {
+                    tree.remove(city);
+                }
+            }
+        }
+
+        int[] tour = new int[size];
+        int count = 0;
+        int end = 0;
+        while (links[2 * end + 1] >= 0) {
+            end++;
+        }
+        while (true) {
+            int previous = -1;
+            int city = end;
+            while (city >= 0) {
+                tour[count++] = city;
+                visit(city);
+                int next = (links[2 * city] != previous) ? links[2 * city] : links[2 * city + 1];
+                previous = city;
+                city = next;
+            }
+            if (count == size) {
+                return tour;
+            }
+            end = nearestFreeEnd(previous, links);
+        }
+    }
+
+    private static int find(int[] parents, int city) {
+        while (parents[city] != city) {
+            parents[city] = parents[parents[city]];
+            city = parents[city];
+        }
+        return city;
+    }
+
+    private int nearestFreeEnd(int city, int[] links) {
+        if (tree != null) {
+            tree.nearest(city, KdTree.ALL, 1, nearest);
+            return nearest[0];
+        }
+        int closest = -1;
+        for (int other = 0; other < size; other++) {
+            if (!visited[other] && links[2 * other + 1] < 0
+                    && (closest < 0 || distanceMatrix.distance(city, other) < distanceMatrix.distance(city, closest))) {
+                closest = other;
+            }
+        }
+        return closest;
+    }
+
+    // Cities in the order of a Hilbert curve over their bounding square, which keeps nearby cities together.
+    private int[] spaceFillingCurve() {
+        TspInstance instance = distanceMatrix.getInstance();
+        if (!instance.hasCoordinates()) {
+            return nearestNeighbor(0);
+        }
+
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int city = 0; city < size; city++) {
+            minX = Math.min(minX, instance.getX(city));
+            maxX = Math.max(maxX, instance.getX(city));
+            minY = Math.min(minY, instance.getY(city));
+            maxY = Math.max(maxY, instance.getY(city));
+        }
+        double span = Math.max(maxX - minX, maxY - minY);
+        double scale = span > 0 ? ((1 << CURVE_ORDER) - 1) / span : 0;
+
+        // Index on the curve in the high bits, city in the low 31 bits.
+        long[] keys = new long[size];
+        for (int city = 0; city < size; city++) {
+            int x = (int) ((instance.getX(city) - minX) * scale);
+            int y = (int) ((instance.getY(city) - minY) * scale);
+            keys[city] = (hilbertIndex(x, y) << 31) | city;
+        }
+        Arrays.sort(keys);
+
+        int[] tour = new int[size];
+        for (int i = 0; i < size; i++) {
+            tour[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return tour;
+    }
+
+    // Position of the grid cell on the Hilbert curve, by quadrants from the largest to the smallest.
+    private static long hilbertIndex(int x, int y) {
+        int side = 1 << CURVE_ORDER;
+        long index = 0;
+        for (int s = side >>> 1; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotates the quadrant so that the curve inside it starts and ends where the next one expects.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return index;
+    }
+
+    // Copy of the tour with three random cuts, whose two middle segments swap places.
+    private int[] doubleBridge(int[] tour, RandomGenerator random) {
+        if (size < 8) {
+            return tour.clone();
+        }
+        int a, b, c;
+        do {
+            a = 1 + random.nextInt(size - 1);
+            b = 1 + random.nextInt(size - 1);
+            c = 1 + random.nextInt(size - 1);
+        } while (a == b || b == c || a == c);
+        int first = Math.min(a, Math.min(b, c));
+        int last = Math.max(a, Math.max(b, c));
+        int middle = a + b + c - first - last;
+
+        int[] kicked = new int[size];
+        int position = first;
+        System.arraycopy(tour, 0, kicked, 0, first);
+        System.arraycopy(tour, middle, kicked, position, last - middle);
+        position += last - middle;
+        System.arraycopy(tour, first, kicked, position, middle - first);
+        System.arraycopy(tour, last, kicked, last, size - last);
+        return kicked;
+    }
+}
@@ -1,45 +1,72 @@
 package genetic_algorithms_tsp.import_data;
 
 import genetic_algorithms_tsp.genetic_objects.City;
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
 
 import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
 
 public class ImportData {
 
+    private static final String DATA_SET = "dataset/bier127.tsp"; // change file path data, for example: "dataset/bier127.tsp" -> "dataset/att48.tsp"
+
+    public static TspInstance getInstance() {
+        return getInstance(DATA_SET);
+    }
+
     public static City[] getCities() {
+        return getInstance().toCities();
+    }
 
-        String filePath = "dataset/bier127.tsp"; // change file path data, for example: "dataset/bier127.tsp" -> "dataset/att48.tsp"
-        int startingLine = 6;
+    public static DistanceMatrix getDistanceMatrix() {
+        return getDistanceMatrix(DATA_SET);
+    }
 
-        String[] lines = read(filePath).split("\n");
-        String[] words = lines[3].split(" ");
-        int numOfCities = Integer.parseInt(words[words.length - 1]);
-        City[] cities = new City[numOfCities];
+    // Distance matrix of a bundled data set, through its binary cache when the data set is a plain file.
+    public static DistanceMatrix getDistanceMatrix(String resource) {
+        URL url = ImportData.class.getResource(resource);
+        if (url == null) {
+            throw new IllegalArgumentException("No data set " + resource + ".");
+        }
+        if (!url.getProtocol().equals("file")) {
+            return new DistanceMatrix(getInstance(resource)); // Inside a jar, there is nowhere to put a cache.
+        }
+        try {
+            return getDistanceMatrix(Path.of(url.toURI()));
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid data set location " + url + ".", e);
+        }
+    }
 
-        for (int i = startingLine; i < startingLine + numOfCities; i++) {
-            String[] line = removeWhiteSpace(lines[i]).trim().split(" ");
-            int x = (int) Double.parseDouble(line[1].trim());
-            int y = (int) Double.parseDouble(line[2].trim());
-            City city = new City(line[0], x, y);
-            cities[i - startingLine] = city;
+    // Distance matrix of a TSPLIB file, through its binary cache.
+    public static DistanceMatrix getDistanceMatrix(Path path) {
+        try {
+            return InstanceCache.load(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path + ".", e);
         }
-        return cities;
     }
 
-    private static String removeWhiteSpace(String s) {
-        for (int i = 1; i < s.length(); i++) {
-            if (s.charAt(i) == ' ' && s.charAt(i - 1) == ' ') {
-                s = s.substring(0, i) + s.substring(i + 1);
-                i--;
+    // Reads a data set bundled with the program, for example "dataset/att48.tsp".
+    public static TspInstance getInstance(String resource) {
+        try (InputStream stream = ImportData.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IllegalArgumentException("No data set " + resource + ".");
             }
+            return TspReader.read(stream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource + ".", e);
         }
-        return s;
     }
 
-    private static String read(String fileName) {
-        InputStream stream = ImportData.class.getResourceAsStream(fileName);
-        assert stream != null;
-        java.util.Scanner s = new java.util.Scanner(stream).useDelimiter("\\A");
-        return s.hasNext() ? s.next() : "";
+    // Reads a TSPLIB file from the file system.
+    public static TspInstance getInstance(Path path) {
+        try {
+            return TspReader.read(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + path + ".", e);
+        }
     }
 }
@@ -0,0 +1,231 @@
+package genetic_algorithms_tsp.import_data;
+
+import genetic_algorithms_tsp.genetic_objects.DistanceMatrix;
+import genetic_algorithms_tsp.genetic_objects.NeighborList;
+import genetic_algorithms_tsp.import_data.TspInstance.EdgeWeightType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary cache of a TSPLIB file, written next to it as name.tsp.cache after the first parse and
+ * memory-mapped on later runs. It holds the coordinates or explicit weights, the neighbor list and,
+ * for instances of up to MAX_CACHED_TABLE cities, the distance table, so a warm start neither parses
+ * text nor searches neighbors. The cache remembers the size and modification time of the file and is
+ * rebuilt when either changes.
+ *
+ * Layout, little-endian: magic, version, source size, source modification time, dimension, edge weight
+ * type, name length and bytes, then flags followed by x and y, weights, k and neighbors, distances.
+ */
+public class InstanceCache {
+    private static final int MAGIC = 0x43505354;    // "TSPC"
+    private static final int VERSION = 1;
+    private static final int MAX_CACHED_TABLE = 2000;  // 16 MB of distances; larger tables are faster to compute than to read.
+    private static final String SUFFIX = ".cache";
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private static final int HAS_COORDINATES = 1;
+    private static final int HAS_WEIGHTS = 2;
+    private static final int HAS_NEIGHBORS = 4;
+    private static final int HAS_DISTANCES = 8;
+
+    // Distance matrix of the TSPLIB file, from its cache when that is up to date.
+    public static DistanceMatrix load(Path tspFile) throws IOException {
+        Path cacheFile = cachePath(tspFile);
+        long sourceSize = Files.size(tspFile);
+        long sourceModified = Files.getLastModifiedTime(tspFile).toMillis();
+
+        if (Files.exists(cacheFile)) {
+            DistanceMatrix cached = read(cacheFile, sourceSize, sourceModified);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        DistanceMatrix distanceMatrix = new DistanceMatrix(TspReader.read(tspFile));
+        try {
+            write(cacheFile, distanceMatrix, sourceSize, sourceModified);
+        } catch (IOException e) {
+            // The directory may be read-only; the next run simply parses the file again.
+        }
+        return distanceMatrix;
+    }
+
+    static Path cachePath(Path tspFile) {
+        return tspFile.resolveSibling(tspFile.getFileName() + SUFFIX);
+    }
+
+    // Null if the cache is of another version or of another state of the file.
+    private static DistanceMatrix read(Path cacheFile, long sourceSize, long sourceModified) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.remaining() < 40 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || buffer.getLong() != sourceSize || buffer.getLong() != sourceModified) {
+                return null;
+            }
+
+            int dimension = checkedCount(buffer, buffer.getInt(), 4);     // Every city takes at least 4 bytes.
+            EdgeWeightType edgeWeightType = EdgeWeightType.values()[buffer.getInt()];
+            byte[] nameBytes = new byte[checkedCount(buffer, buffer.getInt(), 1)];
+            buffer.get(nameBytes);
+            int flags = buffer.getInt();
+
+            double[] x = null;
+            double[] y = null;
+            if ((flags & HAS_COORDINATES) != 0) {
+                checkedCount(buffer, dimension, 16);
+                x = new double[dimension];
+                y = new double[dimension];
+                buffer.asDoubleBuffer().get(x).get(y);
+                buffer.position(buffer.position() + 16 * dimension);
+            }
+
+            int[] weights = null;
+            if ((flags & HAS_WEIGHTS) != 0) {
+                weights = readInts(buffer, (long) dimension * dimension);
+            }
+
+            NeighborList neighborList = null;
+            if ((flags & HAS_NEIGHBORS) != 0) {
+                int k = checkedCount(buffer, buffer.getInt(), 0);
+                int[] neighbors = readInts(buffer, (long) dimension * k);
+                // A damaged id would only fail later, deep in a local search, so every one is checked here.
+                for (int neighbor : neighbors) {
+                    if (neighbor < 0 || neighbor >= dimension) {
+                        throw new IllegalStateException("Damaged cache, neighbor " + neighbor + " out of range.");
+                    }
+                }
+                neighborList = new NeighborList(k, neighbors);
+            }
+
+            int[] distances = null;
+            if ((flags & HAS_DISTANCES) != 0) {
+                distances = readInts(buffer, (long) dimension * dimension);
+            }
+
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            TspInstance instance = new TspInstance(name, edgeWeightType, dimension, x, y, weights);
+            return new DistanceMatrix(instance, distances, neighborList);
+        } catch (RuntimeException e) {
+            return null; // Truncated or otherwise damaged, it is rebuilt.
+        }
+    }
+
+    /**
+     * The count read from a damaged cache could ask for any array size, so it is checked against what is
+     * left of the file before anything is allocated: count values of bytes bytes each must still be there.
+     */
+    private static int checkedCount(MappedByteBuffer buffer, long count, int bytes) {
+        if (count < 0 || count > Integer.MAX_VALUE || count * bytes > buffer.remaining()) {
+            throw new IllegalStateException("Damaged cache, " + count + " values past its end.");
+        }
+        return (int) count;
+    }
+
+    private static int[] readInts(MappedByteBuffer buffer, long count) {
+        int[] values = new int[checkedCount(buffer, count, 4)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * values.length);
+        return values;
+    }
+
+    /**
+     * Written to a temporary file first, so a run reading the cache never sees it half written. It is written
+     * through a buffer rather than mapped, since a file that is still mapped cannot be moved on every platform.
+     */
+    private static void write(Path cacheFile, DistanceMatrix distanceMatrix, long sourceSize, long sourceModified)
+            throws IOException {
+        TspInstance instance = distanceMatrix.getInstance();
+        int n = instance.getDimension();
+        byte[] nameBytes = instance.getName().getBytes(StandardCharsets.UTF_8);
+        boolean hasWeights = instance.getEdgeWeightType() == EdgeWeightType.EXPLICIT;
+        boolean hasNeighbors = n > 1;
+        boolean hasDistances = n <= MAX_CACHED_TABLE && distanceMatrix.hasTable() && !hasWeights;
+        NeighborList neighborList = hasNeighbors ? distanceMatrix.getNeighborList() : null;
+        int k = hasNeighbors ? neighborList.size() : 0;
+
+        int flags = (instance.hasCoordinates() ? HAS_COORDINATES : 0) | (hasWeights ? HAS_WEIGHTS : 0)
+                | (hasNeighbors ? HAS_NEIGHBORS : 0) | (hasDistances ? HAS_DISTANCES : 0);
+
+        Path temporary = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified);
+                buffer.putInt(n).putInt(instance.getEdgeWeightType().ordinal());
+                buffer.putInt(nameBytes.length);
+                flush(channel, buffer);
+                writeFully(channel, ByteBuffer.wrap(nameBytes));
+                buffer.putInt(flags);
+
+                if (instance.hasCoordinates()) {
+                    for (int i = 0; i < n; i++) {
+                        reserve(channel, buffer, 8).putDouble(instance.getX(i));
+                    }
+                    for (int i = 0; i < n; i++) {
+                        reserve(channel, buffer, 8).putDouble(instance.getY(i));
+                    }
+                }
+                if (hasWeights) {
+                    putDistances(channel, buffer, distanceMatrix, n);
+                }
+                if (hasNeighbors) {
+                    buffer.putInt(k);
+                    for (int city = 0; city < n; city++) {
+                        for (int rank = 0; rank < k; rank++) {
+                            reserve(channel, buffer, 4).putInt(neighborList.get(city, rank));
+                        }
+                    }
+                }
+                if (hasDistances) {
+                    putDistances(channel, buffer, distanceMatrix, n);
+                }
+                flush(channel, buffer);
+                channel.force(false);
+            }
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void putDistances(FileChannel channel, ByteBuffer buffer, DistanceMatrix distanceMatrix, int n)
+            throws IOException {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                reserve(channel, buffer, 4).putInt(distanceMatrix.distance(i, j));
+            }
+        }
+    }
+
+    // The buffer with room for the given bytes, written out first if it is too full.
+    private static ByteBuffer reserve(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
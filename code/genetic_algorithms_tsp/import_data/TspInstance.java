@@ -0,0 +1,148 @@
+package genetic_algorithms_tsp.import_data;
+
+import genetic_algorithms_tsp.genetic_objects.City;
+
+/**
+ * A symmetric TSP instance as described by a TSPLIB file: the coordinates of the cities and the
+ * edge weight type that turns them into integer distances, or an explicit matrix of the weights.
+ * Cities are numbered from 0 in the order of the file.
+ */
+public class TspInstance {
+    private static final double PI = 3.141592;     // Values used by the TSPLIB definition of GEO.
+    private static final double RRR = 6378.388;
+
+    public enum EdgeWeightType {
+        EUC_2D,     // Euclidean distance rounded to the nearest integer.
+        CEIL_2D,    // Euclidean distance rounded up.
+        ATT,        // Pseudo-Euclidean distance of the att instances.
+        GEO,        // Geographical distance, coordinates are latitude and longitude in DDD.MM format.
+        EXPLICIT    // Weights are given in the file.
+    }
+
+    private final String name;
+    private final EdgeWeightType edgeWeightType;
+    private final int dimension;
+    private final double[] x;       // Coordinates, null for an explicit instance without display data.
+    private final double[] y;
+    private final int[] weights;    // Full matrix of an explicit instance, null otherwise.
+    private final double[] latitude;    // In radians, GEO only.
+    private final double[] longitude;
+
+    TspInstance(String name, EdgeWeightType edgeWeightType, int dimension, double[] x, double[] y, int[] weights) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Instance must have at least one city.");
+        }
+        if (edgeWeightType == EdgeWeightType.EXPLICIT ? weights == null : x == null) {
+            throw new IllegalArgumentException("Instance of type " + edgeWeightType + " is missing its data.");
+        }
+        this.name = name;
+        this.edgeWeightType = edgeWeightType;
+        this.dimension = dimension;
+        this.x = x;
+        this.y = y;
+        this.weights = weights;
+
+        if (edgeWeightType == EdgeWeightType.GEO) {
+            latitude = new double[dimension];
+            longitude = new double[dimension];
+            for (int i = 0; i < dimension; i++) {
+                latitude[i] = toRadians(x[i]);
+                longitude[i] = toRadians(y[i]);
+            }
+        } else {
+            latitude = null;
+            longitude = null;
+        }
+    }
+
+    // EUC_2D instance with the coordinates of the cities, whose ids must be 0 to cities.length - 1.
+    public static TspInstance fromCities(String name, City[] cities) {
+        double[] x = new double[cities.length];
+        double[] y = new double[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            if (cities[i].getId() != i) {
+                throw new IllegalArgumentException("City ids must match their index in the data set.");
+            }
+            x[i] = cities[i].getX();
+            y[i] = cities[i].getY();
+        }
+        return new TspInstance(name, EdgeWeightType.EUC_2D, cities.length, x, y, null);
+    }
+
+    // DDD.MM format: the integer part is degrees, the fraction minutes.
+    private static double toRadians(double coordinate) {
+        double degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+        return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    // Distance between the cities i and j as defined by TSPLIB for the edge weight type.
+    public int distance(int i, int j) {
+        if (edgeWeightType == EdgeWeightType.EXPLICIT) {
+            return weights[i * dimension + j];
+        } else if (edgeWeightType == EdgeWeightType.GEO) {
+            if (i == j) {
+                return 0;
+            }
+            double q1 = Math.cos(longitude[i] - longitude[j]);
+            double q2 = Math.cos(latitude[i] - latitude[j]);
+            double q3 = Math.cos(latitude[i] + latitude[j]);
+            return (int) (RRR * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+        }
+
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        if (edgeWeightType == EdgeWeightType.ATT) {
+            double r = Math.sqrt((dx * dx + dy * dy) / 10.0);
+            int t = (int) (r + 0.5);
+            return t < r ? t + 1 : t;
+        } else if (edgeWeightType == EdgeWeightType.CEIL_2D) {
+            return (int) Math.ceil(Math.sqrt(dx * dx + dy * dy));
+        } else { // Default is EUC_2D.
+            return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public EdgeWeightType getEdgeWeightType() {
+        return edgeWeightType;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public boolean hasCoordinates() {
+        return x != null;
+    }
+
+    // Whether distances grow with the Euclidean distance between the coordinates, so that the nearest
+    // cities can be found geometrically. Not so for GEO, whose coordinates are angles.
+    public boolean isPlanar() {
+        return edgeWeightType == EdgeWeightType.EUC_2D || edgeWeightType == EdgeWeightType.CEIL_2D
+                || edgeWeightType == EdgeWeightType.ATT;
+    }
+
+    public double getX(int city) {
+        return x[city];
+    }
+
+    public double getY(int city) {
+        return y[city];
+    }
+
+    // Cities for printing and drawing, named by their number in the file. Coordinates are truncated,
+    // and are 0 for an explicit instance without display data.
+    public City[] toCities() {
+        City[] cities = new City[dimension];
+        for (int i = 0; i < dimension; i++) {
+            int cityX = x == null ? 0 : (int) x[i];
+            int cityY = y == null ? 0 : (int) y[i];
+            cities[i] = new City(i, String.valueOf(i + 1), cityX, cityY);
+        }
+        return cities;
+    }
+}
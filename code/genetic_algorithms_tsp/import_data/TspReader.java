@@ -0,0 +1,294 @@
+package genetic_algorithms_tsp.import_data;
+
+import genetic_algorithms_tsp.import_data.TspInstance.EdgeWeightType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Streaming reader of TSPLIB files. The specification lines may come in any order; the data sections
+ * are read number by number straight from a byte buffer, without building a String per line, so that
+ * instances with 100,000 cities load in a fraction of a second.
+ * Supports symmetric TSP instances with EUC_2D, CEIL_2D, ATT, GEO and EXPLICIT edge weights,
+ * the latter in any of the TSPLIB matrix formats.
+ */
+public class TspReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    private String name = "";
+    private String type = "TSP";
+    private int dimension = -1;
+    private EdgeWeightType edgeWeightType;
+    private String edgeWeightFormat = "FULL_MATRIX";
+    private double[] x;
+    private double[] y;
+    private int[] weights;
+
+    private TspReader(InputStream in) {
+        this.in = in;
+    }
+
+    public static TspInstance read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    // Reads the instance from the stream, which is not closed.
+    public static TspInstance read(InputStream in) throws IOException {
+        return new TspReader(in).readInstance();
+    }
+
+    private TspInstance readInstance() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            int colon = line.indexOf(':');
+            String keyword = (colon < 0 ? line : line.substring(0, colon)).trim().toUpperCase(Locale.ROOT);
+            String value = colon < 0 ? "" : line.substring(colon + 1).trim();
+
+            if (keyword.isEmpty()) {
+                continue;
+            }
+            if (keyword.equals("EOF")) {
+                break;
+            }
+
+            switch (keyword) {
+                case "NAME" -> name = value;
+                case "TYPE" -> type = value.toUpperCase(Locale.ROOT);
+                case "DIMENSION" -> dimension = parseDimension(value);
+                case "EDGE_WEIGHT_TYPE" -> edgeWeightType = parseEdgeWeightType(value);
+                case "EDGE_WEIGHT_FORMAT" -> edgeWeightFormat = value.toUpperCase(Locale.ROOT);
+                case "NODE_COORD_SECTION", "DISPLAY_DATA_SECTION" -> readCoordinates();
+                case "EDGE_WEIGHT_SECTION" -> readEdgeWeights();
+                default -> { } // COMMENT, NODE_COORD_TYPE, DISPLAY_DATA_TYPE and unknown keywords do not matter.
+            }
+        }
+
+        if (!type.startsWith("TSP")) {
+            throw new IllegalArgumentException("Only symmetric TSP instances are supported, not " + type + ".");
+        }
+        if (dimension < 0) {
+            throw new IllegalArgumentException("Missing DIMENSION.");
+        }
+        if (edgeWeightType == null) {
+            throw new IllegalArgumentException("Missing EDGE_WEIGHT_TYPE.");
+        }
+        return new TspInstance(name, edgeWeightType, dimension, x, y, weights);
+    }
+
+    private static int parseDimension(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid DIMENSION: " + value, e);
+        }
+    }
+
+    private static EdgeWeightType parseEdgeWeightType(String value) {
+        try {
+            return EdgeWeightType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE: " + value, e);
+        }
+    }
+
+    private void requireDimension(String section) {
+        if (dimension < 0) {
+            throw new IllegalArgumentException("DIMENSION must come before " + section + ".");
+        }
+    }
+
+    // One line "number x y" per city; the numbers run from 1 to the dimension.
+    private void readCoordinates() throws IOException {
+        requireDimension("the coordinates");
+        x = new double[dimension];
+        y = new double[dimension];
+
+        for (int i = 0; i < dimension; i++) {
+            double number = readNumber();
+            int city = (int) number - 1;
+            if (city != number - 1 || city < 0 || city >= dimension) {
+                throw new IllegalArgumentException("Invalid city number: " + number);
+            }
+            x[city] = readNumber();
+            y[city] = readNumber();
+        }
+    }
+
+    private void readEdgeWeights() throws IOException {
+        requireDimension("EDGE_WEIGHT_SECTION");
+        int n = dimension;
+        weights = new int[n * n];
+
+        // Every column format lists the same weights as the row format of the other triangle.
+        switch (edgeWeightFormat) {
+            case "FULL_MATRIX" -> {
+                for (int i = 0; i < n; i++) {
+                    for (int j = 0; j < n; j++) {
+                        weights[i * n + j] = readWeight();
+                    }
+                }
+            }
+            case "UPPER_ROW", "LOWER_COL" -> readTriangle(false, false);
+            case "LOWER_ROW", "UPPER_COL" -> readTriangle(true, false);
+            case "UPPER_DIAG_ROW", "LOWER_DIAG_COL" -> readTriangle(false, true);
+            case "LOWER_DIAG_ROW", "UPPER_DIAG_COL" -> readTriangle(true, true);
+            default -> throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_FORMAT: " + edgeWeightFormat);
+        }
+    }
+
+    // Row by row, each row holding the weights to the cities before it (lower) or after it (upper).
+    private void readTriangle(boolean lower, boolean diagonal) throws IOException {
+        int n = dimension;
+        for (int i = 0; i < n; i++) {
+            int from = lower ? 0 : (diagonal ? i : i + 1);
+            int to = lower ? (diagonal ? i : i - 1) : n - 1;
+            for (int j = from; j <= to; j++) {
+                int weight = readWeight();
+                weights[i * n + j] = weight;
+                weights[j * n + i] = weight;
+            }
+        }
+    }
+
+    private int readWeight() throws IOException {
+        return (int) Math.round(readNumber());
+    }
+
+    // The rest of the current line, or null at the end of the stream.
+    private String readLine() throws IOException {
+        if (position == limit && !fill()) {
+            return null;
+        }
+        tokenLength = 0;
+        while (position < limit || fill()) {
+            byte b = buffer[position++];
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                append(b);
+            }
+        }
+        return new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+    }
+
+    // Next whitespace separated number of a data section.
+    private double readNumber() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new IllegalArgumentException("Unexpected end of file in a data section.");
+            }
+            if (buffer[position] > ' ') {
+                break;
+            }
+            position++;
+        }
+
+        tokenLength = 0;
+        while ((position < limit || fill()) && buffer[position] > ' ') {
+            append(buffer[position++]);
+        }
+        return parseToken();
+    }
+
+    /**
+     * Exact fast path for numbers of at most 15 significant digits and a small exponent: the digits as a
+     * long and the power of ten are both exact doubles, so one multiplication or division rounds correctly.
+     * Anything else goes to Double.parseDouble.
+     */
+    private double parseToken() {
+        int i = 0;
+        boolean negative = false;
+        if (token[i] == '-' || token[i] == '+') {
+            negative = token[i] == '-';
+            i++;
+        }
+
+        long digits = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; i < tokenLength; i++) {
+            byte b = token[i];
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (significant > 0 || b != '0') {
+                    significant++;
+                }
+                digits = digits * 10 + (b - '0');
+                if (seenDot) {
+                    scale--;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i < tokenLength && seenDigit && (token[i] == 'e' || token[i] == 'E')) {
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < tokenLength && (token[j] == '-' || token[j] == '+')) {
+                negativeExponent = token[j] == '-';
+                j++;
+            }
+            int exponent = 0;
+            int exponentStart = j;
+            while (j < tokenLength && token[j] >= '0' && token[j] <= '9' && exponent < 1000) {
+                exponent = exponent * 10 + (token[j] - '0');
+                j++;
+            }
+            if (j > exponentStart) {
+                scale += negativeExponent ? -exponent : exponent;
+                i = j;
+            }
+        }
+
+        if (i == tokenLength && seenDigit && significant <= 15 && scale >= -22 && scale <= 22) {
+            double value = scale < 0 ? digits / POWERS_OF_TEN[-scale] : digits * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        String text = new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + text, e);
+        }
+    }
+
+    private void append(byte b) {
+        if (tokenLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, tokenLength);
+            token = larger;
+        }
+        token[tokenLength++] = b;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, BUFFER_SIZE);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}